@@ -0,0 +1,48 @@
+package org.technoready.bench;
+
+import org.technoready.dto.request.CreateUserRequest;
+import org.technoready.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark Fixtures
+ * Deterministic users shaped like production rows, shared by the JMH benchmarks
+ */
+final class BenchmarkFixtures {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2025, 10, 29, 23, 26, 44, 17_555_000);
+
+    private BenchmarkFixtures() {
+    }
+
+    static User user(long id) {
+        LocalDateTime createdAt = BASE_TIME.plusSeconds(id * 37).plusNanos(id * 1_013_000);
+        return User.builder()
+                .id(id)
+                .username("user" + id)
+                .email("user" + id + "@example.com")
+                .fullName("Benchmark User " + id)
+                .createdAt(createdAt)
+                .updatedAt(createdAt.plusMinutes(id % 90))
+                .build();
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            users.add(user(i));
+        }
+        return users;
+    }
+
+    static CreateUserRequest validCreateRequest() {
+        return new CreateUserRequest("sofia", "sofia@example.com", "Sofía Martínez");
+    }
+
+    static CreateUserRequest invalidCreateRequest() {
+        return new CreateUserRequest("sofia", "not-an-email", "Sofía Martínez");
+    }
+}
@@ -0,0 +1,116 @@
+package org.technoready.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.technoready.config.GsonConfig;
+import org.technoready.controller.UserController;
+import org.technoready.entity.User;
+import org.technoready.service.UserService;
+import org.technoready.web.ETags;
+import org.technoready.web.ResponseEncoder;
+import spark.Request;
+import spark.Response;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controller Benchmark
+ * Full UserController.getUserById invocation, parsing, lookup, mapping and serialization,
+ * against an in-memory UserService stub; conditional=true measures the 304 revalidation path
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerBenchmark {
+
+    @Param({"false", "true"})
+    private boolean conditional;
+
+    private UserController controller;
+    private StubRequest request;
+    private StubResponse response;
+
+    @Setup
+    public void setUp() {
+        User user = BenchmarkFixtures.user(42);
+        Optional<User> found = Optional.of(user);
+        UserService service = (UserService) Proxy.newProxyInstance(UserService.class.getClassLoader(),
+                new Class<?>[]{UserService.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getUserById")) {
+                        return found;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        controller = new UserController(service, GsonConfig.getGson(),
+                new ResponseEncoder(GsonConfig.getPrettyGson(), true, 1024), "no-cache");
+        request = new StubRequest("42", conditional ? ETags.forUser(user) : null);
+        response = new StubResponse();
+    }
+
+    @Benchmark
+    public String getUserById() {
+        return controller.getUserById(request, response);
+    }
+
+    /**
+     * Request with a fixed :id and If-None-Match, bypassing the servlet layer
+     */
+    static final class StubRequest extends Request {
+        private final String id;
+        private final String ifNoneMatch;
+
+        StubRequest(String id, String ifNoneMatch) {
+            this.id = id;
+            this.ifNoneMatch = ifNoneMatch;
+        }
+
+        @Override
+        public String params(String param) {
+            return ":id".equals(param) ? id : null;
+        }
+
+        @Override
+        public String headers(String header) {
+            return "If-None-Match".equals(header) ? ifNoneMatch : null;
+        }
+    }
+
+    /**
+     * Response that only keeps the status, headers are discarded
+     */
+    static final class StubResponse extends Response {
+        private int status;
+
+        @Override
+        public void status(int statusCode) {
+            status = statusCode;
+        }
+
+        @Override
+        public int status() {
+            return status;
+        }
+
+        @Override
+        public void header(String header, String value) {
+        }
+
+        @Override
+        public void type(String contentType) {
+        }
+    }
+}
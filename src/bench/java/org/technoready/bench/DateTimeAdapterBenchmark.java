@@ -0,0 +1,74 @@
+package org.technoready.bench;
+
+import com.google.gson.stream.JsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.technoready.util.LocalDateTimeAdapter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Date Time Adapter Benchmark
+ * The hand-rolled timestamp writer against the DateTimeFormatter it replaced
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateTimeAdapterBenchmark {
+
+    private final LocalDateTimeAdapter adapter = new LocalDateTimeAdapter();
+    private LocalDateTime value;
+    private StringWriter buffer;
+    private JsonWriter writer;
+
+    @Setup
+    public void setUp() {
+        value = BenchmarkFixtures.user(42).getCreatedAt();
+        buffer = new StringWriter(1 << 16);
+        writer = new JsonWriter(buffer);
+        writer.setLenient(true);
+    }
+
+    @Benchmark
+    public StringWriter adapterWrite() throws IOException {
+        resetIfFull();
+        adapter.write(writer, value);
+        return buffer;
+    }
+
+    @Benchmark
+    public StringWriter formatterBaseline() throws IOException {
+        resetIfFull();
+        writer.value(value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        return buffer;
+    }
+
+    @Benchmark
+    public LocalDateTime read() throws IOException {
+        return adapter.fromJson("\"2025-10-29T23:26:44.017555\"");
+    }
+
+    // Lenient top-level values append to the buffer; recycle it before it grows without bound
+    private void resetIfFull() {
+        if (buffer.getBuffer().length() > 60_000) {
+            buffer = new StringWriter(1 << 16);
+            writer = new JsonWriter(buffer);
+            writer.setLenient(true);
+        }
+    }
+}
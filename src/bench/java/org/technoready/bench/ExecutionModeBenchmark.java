@@ -0,0 +1,128 @@
+package org.technoready.bench;
+
+import org.technoready.web.ServerExecution;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static spark.Spark.awaitInitialization;
+import static spark.Spark.get;
+import static spark.Spark.port;
+import static spark.Spark.stop;
+
+/**
+ * Execution Mode Benchmark
+ * Compares request concurrency and latency of the platform and virtual execution modes
+ * The route sleeps to stand in for the blocking JDBI/PostgreSQL round trip of the real handlers
+ *
+ * Usage: mvn -Pbench compile exec:java -Dexec.mainClass=org.technoready.bench.ExecutionModeBenchmark
+ *        -Dexec.args="mode connections durationSeconds ioLatencyMs maxThreads"
+ * e.g.   -Dexec.args="virtual 2000 20 20 200"
+ */
+public class ExecutionModeBenchmark {
+
+    private static final int PORT = 4599;
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : ServerExecution.PLATFORM;
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        long ioLatencyMillis = args.length > 3 ? Long.parseLong(args[3]) : 20;
+        int maxThreads = args.length > 4 ? Integer.parseInt(args[4]) : 200;
+
+        port(PORT);
+        ServerExecution.configure(mode, maxThreads);
+        get("/io", (request, response) -> {
+            Thread.sleep(ioLatencyMillis);
+            return "ok";
+        });
+        awaitInitialization();
+
+        // Short warmup so JIT and connection setup stay out of the measured window
+        runLoad(Math.min(connections, 50), System.nanoTime() + Duration.ofSeconds(3).toNanos());
+
+        long started = System.nanoTime();
+        LoadResult result = runLoad(connections, started + Duration.ofSeconds(durationSeconds).toNanos());
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        long[] latencies = result.latencies;
+        Arrays.sort(latencies);
+        System.out.printf("mode=%s connections=%d ioLatencyMs=%d maxThreads=%d%n",
+                mode, connections, ioLatencyMillis, maxThreads);
+        System.out.printf("requests=%d errors=%d throughput=%.1f req/s%n",
+                latencies.length, result.errors, latencies.length / elapsedSeconds);
+        System.out.printf("latency ms: p50=%.2f p90=%.2f p99=%.2f max=%.2f%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90),
+                percentile(latencies, 0.99), percentile(latencies, 1.0));
+
+        stop();
+        System.exit(0);
+    }
+
+    /**
+     * One client thread per connection, each sending requests back to back over keep-alive
+     */
+    private static LoadResult runLoad(int connections, long deadline) throws InterruptedException {
+        List<long[]> perClient = new ArrayList<>(connections);
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(connections);
+
+        for (int i = 0; i < connections; i++) {
+            long[][] slot = {new long[1024]};
+            int[] count = {0};
+            Thread worker = new Thread(() -> {
+                try (KeepAliveConnection connection = new KeepAliveConnection("localhost", PORT)) {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            if (connection.send("GET", "/io", null) != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (count[0] == slot[0].length) {
+                            slot[0] = Arrays.copyOf(slot[0], slot[0].length * 2);
+                        }
+                        slot[0][count[0]++] = System.nanoTime() - start;
+                    }
+                } finally {
+                    synchronized (perClient) {
+                        perClient.add(Arrays.copyOf(slot[0], count[0]));
+                    }
+                    done.countDown();
+                }
+            });
+            worker.setDaemon(true);
+            worker.start();
+        }
+        done.await();
+
+        long[] all = perClient.stream().flatMapToLong(Arrays::stream).toArray();
+        return new LoadResult(all, errors.get());
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static final class LoadResult {
+        private final long[] latencies;
+        private final long errors;
+
+        private LoadResult(long[] latencies, long errors) {
+            this.latencies = latencies;
+            this.errors = errors;
+        }
+    }
+}
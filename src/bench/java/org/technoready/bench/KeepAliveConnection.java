@@ -0,0 +1,162 @@
+package org.technoready.bench;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Keep-Alive Connection
+ * Minimal blocking HTTP/1.1 client over one persistent socket
+ * Far cheaper per request than java.net.http, so the load generator is not the bottleneck
+ */
+class KeepAliveConnection implements Closeable {
+
+    private final String host;
+    private final int port;
+    private Socket socket;
+    private OutputStream out;
+    private InputStream in;
+
+    KeepAliveConnection(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Send one request and read the full response, returning the status code
+     */
+    int send(String method, String path, String body) throws IOException {
+        return send(method, path, body, null);
+    }
+
+    /**
+     * Like {@link #send(String, String, String)}, copying the response body into the given sink
+     */
+    int send(String method, String path, String body, ByteArrayOutputStream responseBody) throws IOException {
+        if (socket == null) {
+            connect();
+        }
+        byte[] payload = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+        StringBuilder head = new StringBuilder(128)
+                .append(method).append(' ').append(path).append(" HTTP/1.1\r\n")
+                .append("Host: ").append(host).append(':').append(port).append("\r\n");
+        if (body != null) {
+            head.append("Content-Type: application/json\r\n");
+        }
+        head.append("Content-Length: ").append(payload.length).append("\r\n\r\n");
+
+        try {
+            out.write(head.toString().getBytes(StandardCharsets.US_ASCII));
+            out.write(payload);
+            out.flush();
+            return readResponse(responseBody);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private int readResponse(ByteArrayOutputStream responseBody) throws IOException {
+        String statusLine = readLine();
+        int status = Integer.parseInt(statusLine.substring(9, 12));
+        long contentLength = -1;
+        boolean chunked = false;
+        boolean closeAfter = false;
+        String line;
+        while (!(line = readLine()).isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String name = line.substring(0, colon).trim();
+            String value = line.substring(colon + 1).trim();
+            if (name.equalsIgnoreCase("Content-Length")) {
+                contentLength = Long.parseLong(value);
+            } else if (name.equalsIgnoreCase("Transfer-Encoding") && value.equalsIgnoreCase("chunked")) {
+                chunked = true;
+            } else if (name.equalsIgnoreCase("Connection") && value.equalsIgnoreCase("close")) {
+                closeAfter = true;
+            }
+        }
+
+        if (chunked) {
+            long size;
+            while ((size = Long.parseLong(readLine().trim(), 16)) > 0) {
+                consume(size, responseBody);
+                readLine();
+            }
+            while (!readLine().isEmpty()) {
+                // trailers
+            }
+        } else if (contentLength > 0) {
+            consume(contentLength, responseBody);
+        }
+
+        if (closeAfter) {
+            close();
+        }
+        return status;
+    }
+
+    private void connect() throws IOException {
+        socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        out = socket.getOutputStream();
+        in = new BufferedInputStream(socket.getInputStream(), 16 * 1024);
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder(64);
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                throw new EOFException("Connection closed by server");
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+
+    private void consume(long bytes, ByteArrayOutputStream sink) throws IOException {
+        if (sink != null) {
+            byte[] chunk = in.readNBytes((int) bytes);
+            if (chunk.length < bytes) {
+                throw new EOFException("Connection closed by server");
+            }
+            sink.write(chunk);
+            return;
+        }
+        long remaining = bytes;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException("Connection closed by server");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (socket != null) {
+                socket.close();
+            }
+        } catch (IOException ignored) {
+            // nothing left to release
+        } finally {
+            socket = null;
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package org.technoready.bench;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.github.cdimascio.dotenv.Dotenv;
+import org.technoready.Main;
+import org.technoready.config.EnvConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static spark.Spark.awaitInitialization;
+
+/**
+ * Load Test
+ * End-to-end HTTP benchmark of the user API with a weighted mix of operations
+ *
+ * Requests follow an open-loop schedule at a fixed total rate and latency is measured from each
+ * request's intended start, so a stalled server is charged for the requests it delayed
+ * (coordinated-omission safe). rate=0 switches to closed-loop maximum throughput instead.
+ * Results are printed and written as JSON so runs can be diffed across commits.
+ *
+ * Usage: mvn -Pbench compile exec:java -Dexec.mainClass=org.technoready.bench.LoadTest
+ *        -Dexec.args="boot=true users=1000 clients=64 rate=2000 duration=30 warmup=5"
+ * Options (key=value):
+ *   boot      start the application in-process through Main, using .env (default false)
+ *   host/port target when not booting (default localhost and SERVER_PORT or 4567)
+ *   users     users seeded through POST /users/batch before the run (default 1000)
+ *   clients   concurrent keep-alive connections (default 64)
+ *   rate      total requests per second, 0 for closed loop (default 2000)
+ *   duration  measured seconds (default 30), warmup: discarded seconds before it (default 5)
+ *   mix       operation weights (default get:60,list:10,post:10,put:10,delete:5,options:5)
+ *   out       JSON results file (default target/loadtest-results.json), label: free text stored with them
+ */
+public class LoadTest {
+
+    private static final int SEED_CHUNK = 500;
+    private static final double[] QUANTILES = {0.50, 0.90, 0.99, 0.999};
+    private static final String[] QUANTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    enum Operation {
+        GET, LIST, POST, PUT, DELETE, OPTIONS
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        boolean boot = Boolean.parseBoolean(options.getOrDefault("boot", "false"));
+        int users = Integer.parseInt(options.getOrDefault("users", "1000"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "64"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "2000"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        Map<Operation, Integer> mix = parseMix(options.getOrDefault("mix",
+                "get:60,list:10,post:10,put:10,delete:5,options:5"));
+        Path out = Path.of(options.getOrDefault("out", "target/loadtest-results.json"));
+
+        String host = options.getOrDefault("host", "localhost");
+        int port;
+        if (boot) {
+            Main.main(new String[0]);
+            awaitInitialization();
+            port = EnvConfig.load(Dotenv.configure().ignoreIfMissing().load()).getServerPort();
+        } else {
+            port = Integer.parseInt(options.getOrDefault("port",
+                    Dotenv.configure().ignoreIfMissing().load().get("SERVER_PORT", "4567")));
+        }
+
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        long[] seededIds = seed(host, port, runId, users);
+        if (seededIds.length == 0) {
+            throw new IllegalStateException("No users could be seeded");
+        }
+        System.out.printf("Seeded %d users, running %ds warmup + %ds at %s against %s:%d%n",
+                seededIds.length, warmupSeconds, durationSeconds,
+                rate > 0 ? rate + " req/s" : "max throughput", host, port);
+
+        Workload workload = new Workload(host, port, runId, seededIds, mix);
+        Map<Operation, OperationStats> stats = workload.run(clients, rate,
+                TimeUnit.SECONDS.toNanos(warmupSeconds), TimeUnit.SECONDS.toNanos(durationSeconds));
+
+        Map<String, Object> results = report(options, stats, durationSeconds);
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        Files.writeString(out, gson.toJson(results));
+        System.out.println("Results written to " + out);
+        System.exit(0);
+    }
+
+    /**
+     * Create the user population through the batch endpoint, returning the generated ids
+     */
+    private static long[] seed(String host, int port, String runId, int users) throws IOException {
+        long[] ids = new long[users];
+        int seeded = 0;
+        try (KeepAliveConnection connection = new KeepAliveConnection(host, port)) {
+            for (int start = 0; start < users; start += SEED_CHUNK) {
+                StringBuilder body = new StringBuilder("[");
+                for (int i = start; i < Math.min(users, start + SEED_CHUNK); i++) {
+                    body.append(i == start ? "" : ",").append(userJson("seed" + runId + "_" + i));
+                }
+                body.append(']');
+                ByteArrayOutputStream response = new ByteArrayOutputStream();
+                int status = connection.send("POST", "/users/batch", body.toString(), response);
+                if (status != 200) {
+                    throw new IllegalStateException("Seeding failed with status " + status + ": " + response);
+                }
+                JsonObject envelope = JsonParser.parseString(response.toString(StandardCharsets.UTF_8))
+                        .getAsJsonObject();
+                for (JsonElement item : envelope.getAsJsonArray("data")) {
+                    JsonElement id = item.getAsJsonObject().get("id");
+                    if (id != null && !id.isJsonNull()) {
+                        ids[seeded++] = id.getAsLong();
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(ids, seeded);
+    }
+
+    private static String userJson(String username) {
+        return "{\"username\":\"" + username + "\",\"email\":\"" + username
+                + "@example.com\",\"fullName\":\"Load Test " + username + "\"}";
+    }
+
+    /**
+     * Client threads replaying the operation mix against the server
+     */
+    private static final class Workload {
+        private final String host;
+        private final int port;
+        private final String runId;
+        private final long[] seededIds;
+        private final Operation[] operations;
+        private final int[] cumulativeWeights;
+        // Users created during the run, consumed by DELETE so the seeded population stays intact
+        private final ConcurrentLinkedQueue<Long> created = new ConcurrentLinkedQueue<>();
+
+        private Workload(String host, int port, String runId, long[] seededIds, Map<Operation, Integer> mix) {
+            this.host = host;
+            this.port = port;
+            this.runId = runId;
+            this.seededIds = seededIds;
+            this.operations = mix.keySet().toArray(new Operation[0]);
+            this.cumulativeWeights = new int[operations.length];
+            int total = 0;
+            for (int i = 0; i < operations.length; i++) {
+                total += mix.get(operations[i]);
+                cumulativeWeights[i] = total;
+            }
+        }
+
+        Map<Operation, OperationStats> run(int clients, double rate, long warmupNanos, long durationNanos)
+                throws InterruptedException {
+            long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+            long measureFrom = start + warmupNanos;
+            long end = measureFrom + durationNanos;
+            long interval = rate > 0 ? (long) (clients * 1e9 / rate) : 0;
+
+            List<Map<Operation, OperationStats>> perClient = new ArrayList<>();
+            CountDownLatch done = new CountDownLatch(clients);
+            for (int c = 0; c < clients; c++) {
+                Map<Operation, OperationStats> stats = newStats();
+                perClient.add(stats);
+                long offset = interval * c / clients;
+                Thread worker = new Thread(() -> {
+                    try (KeepAliveConnection connection = new KeepAliveConnection(host, port)) {
+                        runClient(connection, stats, start + offset, interval, measureFrom, end);
+                    } finally {
+                        done.countDown();
+                    }
+                }, "load-client-" + c);
+                worker.setDaemon(true);
+                worker.start();
+            }
+            done.await();
+
+            Map<Operation, OperationStats> merged = newStats();
+            for (Map<Operation, OperationStats> stats : perClient) {
+                stats.forEach((operation, value) -> merged.get(operation).merge(value));
+            }
+            return merged;
+        }
+
+        private void runClient(KeepAliveConnection connection, Map<Operation, OperationStats> stats,
+                               long firstStart, long interval, long measureFrom, long end) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            long intended = firstStart;
+            long sequence = 0;
+            while (true) {
+                long now = System.nanoTime();
+                if (interval > 0) {
+                    if (intended >= end) {
+                        return;
+                    }
+                    if (intended > now) {
+                        LockSupport.parkNanos(intended - now);
+                    }
+                } else {
+                    if (now >= end) {
+                        return;
+                    }
+                    intended = now;
+                }
+
+                Operation operation = pick();
+                OperationStats operationStats = stats.get(operation);
+                boolean ok;
+                try {
+                    ok = execute(connection, operation, sequence++, body);
+                } catch (IOException | RuntimeException e) {
+                    ok = false;
+                }
+                // Latency runs from the intended start: time spent behind schedule counts against the server
+                long latency = System.nanoTime() - intended;
+                if (intended >= measureFrom && intended < end) {
+                    if (ok) {
+                        operationStats.record(latency);
+                    } else {
+                        operationStats.errors++;
+                    }
+                }
+                intended += interval;
+            }
+        }
+
+        private boolean execute(KeepAliveConnection connection, Operation operation, long sequence,
+                                ByteArrayOutputStream body) throws IOException {
+            long id = seededIds[ThreadLocalRandom.current().nextInt(seededIds.length)];
+            switch (operation) {
+                case GET:
+                    return connection.send("GET", "/users/" + id, null) == 200;
+                case LIST:
+                    return connection.send("GET", "/users?limit=50", null) == 200;
+                case PUT:
+                    return connection.send("PUT", "/users/" + id,
+                            "{\"fullName\":\"Updated " + sequence + "\"}") == 200;
+                case OPTIONS:
+                    return connection.send("OPTIONS", "/users/" + id, null) == 200;
+                case POST: {
+                    body.reset();
+                    String username = "lt" + runId + "_" + Thread.currentThread().getId() + "_" + sequence;
+                    int status = connection.send("POST", "/users", userJson(username), body);
+                    if (status != 201) {
+                        return false;
+                    }
+                    created.add(JsonParser.parseString(body.toString(StandardCharsets.UTF_8))
+                            .getAsJsonObject().getAsJsonObject("data").get("id").getAsLong());
+                    return true;
+                }
+                case DELETE: {
+                    Long target = created.poll();
+                    // Nothing created yet: deleting an unknown id still exercises the path, 404 is expected
+                    int status = connection.send("DELETE", "/users/" + (target != null ? target : -1), null);
+                    return target != null ? status == 200 : status == 404;
+                }
+                default:
+                    throw new IllegalStateException("Unknown operation " + operation);
+            }
+        }
+
+        private Operation pick() {
+            int roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (roll < cumulativeWeights[i]) {
+                    return operations[i];
+                }
+            }
+            return operations[operations.length - 1];
+        }
+
+        private Map<Operation, OperationStats> newStats() {
+            Map<Operation, OperationStats> stats = new LinkedHashMap<>();
+            for (Operation operation : operations) {
+                stats.put(operation, new OperationStats());
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * Raw latencies of one operation, kept whole so percentiles are exact
+     */
+    private static final class OperationStats {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        void merge(OperationStats other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i]);
+            }
+            errors += other.errors;
+        }
+
+        long[] sorted() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    private static Map<String, Object> report(Map<String, String> options, Map<Operation, OperationStats> stats,
+                                              int durationSeconds) {
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("timestamp", Instant.now().toString());
+        results.put("commit", gitCommit());
+        results.put("label", options.getOrDefault("label", ""));
+        results.put("options", options);
+
+        OperationStats total = new OperationStats();
+        Map<String, Object> operations = new LinkedHashMap<>();
+        System.out.printf("%-8s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "op", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            total.merge(entry.getValue());
+            operations.put(entry.getKey().name().toLowerCase(Locale.ROOT),
+                    summarize(entry.getKey().name(), entry.getValue(), durationSeconds));
+        }
+        results.put("total", summarize("TOTAL", total, durationSeconds));
+        results.put("operations", operations);
+        return results;
+    }
+
+    private static Map<String, Object> summarize(String name, OperationStats stats, int durationSeconds) {
+        long[] sorted = stats.sorted();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", sorted.length);
+        summary.put("errors", stats.errors);
+        summary.put("throughput", sorted.length / (double) durationSeconds);
+        Map<String, Double> latency = new LinkedHashMap<>();
+        for (int i = 0; i < QUANTILES.length; i++) {
+            latency.put(QUANTILE_NAMES[i], percentileMillis(sorted, QUANTILES[i]));
+        }
+        latency.put("max", percentileMillis(sorted, 1.0));
+        summary.put("latencyMs", latency);
+
+        System.out.printf(Locale.ROOT, "%-8s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, sorted.length, stats.errors, sorted.length / (double) durationSeconds,
+                percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.90), percentileMillis(sorted, 0.99),
+                percentileMillis(sorted, 0.999), percentileMillis(sorted, 1.0));
+        return summary;
+    }
+
+    private static double percentileMillis(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static String gitCommit() {
+        try {
+            Process process = new ProcessBuilder("git", "rev-parse", "--short", "HEAD")
+                    .redirectErrorStream(true).start();
+            try (InputStream in = process.getInputStream()) {
+                String commit = new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+                return process.waitFor() == 0 ? commit : "unknown";
+            }
+        } catch (IOException e) {
+            return "unknown";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "unknown";
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Operation mix has no positive weight: " + mix);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,54 @@
+package org.technoready.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.technoready.dto.response.UserResponse;
+import org.technoready.entity.User;
+import org.technoready.util.UserMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapper Benchmark
+ * Entity to response DTO conversion, single and list
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"1", "50", "500"})
+    private int size;
+
+    private User user;
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkFixtures.user(42);
+        users = BenchmarkFixtures.users(size);
+    }
+
+    @Benchmark
+    public UserResponse toResponse() {
+        return UserMapper.toResponse(user);
+    }
+
+    @Benchmark
+    public List<UserResponse> toResponseList() {
+        return UserMapper.toResponseList(users);
+    }
+}
@@ -0,0 +1,51 @@
+package org.technoready.bench;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.technoready.config.GsonConfig;
+import org.technoready.dto.response.ApiResponse;
+import org.technoready.dto.response.UserResponse;
+import org.technoready.util.UserMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization Benchmark
+ * Gson encoding of a users page envelope, ApiResponse of List of UserResponse, at several page sizes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1", "50", "500"})
+    private int size;
+
+    private Gson gson;
+    private ApiResponse<List<UserResponse>> page;
+
+    @Setup
+    public void setUp() {
+        gson = GsonConfig.getGson();
+        page = ApiResponse.page(UserMapper.toResponseList(BenchmarkFixtures.users(size)), "cursor");
+    }
+
+    @Benchmark
+    public String toJson() {
+        return gson.toJson(page);
+    }
+}
@@ -0,0 +1,46 @@
+package org.technoready.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.technoready.dto.request.CreateUserRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation Benchmark
+ * CreateUserRequest.validate() on a valid body and on a body rejected for its email
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private final CreateUserRequest valid = BenchmarkFixtures.validCreateRequest();
+    private final CreateUserRequest invalid = BenchmarkFixtures.invalidCreateRequest();
+
+    @Benchmark
+    public CreateUserRequest validRequest() {
+        valid.validate();
+        return valid;
+    }
+
+    @Benchmark
+    public String invalidRequest() {
+        try {
+            invalid.validate();
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+}
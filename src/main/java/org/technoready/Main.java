@@ -1,11 +1,21 @@
 package org.technoready;
 
+import com.zaxxer.hikari.HikariDataSource;
 import io.github.cdimascio.dotenv.Dotenv;
 import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.core.Jdbi;
 import org.technoready.config.DatabaseConfig;
 import org.technoready.config.EnvConfig;
+import org.technoready.config.GsonConfig;
+import org.technoready.controller.HealthController;
+import org.technoready.metrics.MetricsRegistry;
 import org.technoready.routes.UserRoutes;
+import org.technoready.web.ServerExecution;
+import org.technoready.web.StartupTracker;
+import org.technoready.web.StartupWarmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static spark.Spark.*;
 
@@ -13,6 +23,7 @@ import static spark.Spark.*;
 public class Main {
     public static void main(String[] args) {
         log.info("Starting Online Store Application...");
+        StartupTracker startup = new StartupTracker();
 
         try {
             // Load environment variables
@@ -21,27 +32,90 @@ public class Main {
                     .load();
 
             // Load configuration
-            EnvConfig config = EnvConfig.load(dotenv);
+            EnvConfig config = startup.time("config", () -> EnvConfig.load(dotenv));
             log.info("Configuration loaded successfully");
 
-            // Initialize database
-            Jdbi jdbi = DatabaseConfig.initialize(config);
-            log.info("Database initialized successfully");
+            // Metrics are created first so the pools and JDBI report into them from the start
+            MetricsRegistry metrics = new MetricsRegistry();
+
+            // Database work runs on startup threads while the HTTP server comes up;
+            // the pools are created here, connections are only opened by the phases
+            HikariDataSource dataSource = null;
+            Jdbi jdbi = null;
+            CompletableFuture<Void> database = CompletableFuture.completedFuture(null);
+            CompletableFuture<Jdbi> replica = CompletableFuture.completedFuture(null);
+            if (!config.isInMemoryUserStore()) {
+                HikariDataSource primary = DatabaseConfig.createDataSource(config, metrics.poolTracker());
+                Jdbi primaryJdbi = DatabaseConfig.initialize(primary);
+                primaryJdbi.setSqlLogger(metrics.queryLogger());
+                dataSource = primary;
+                jdbi = primaryJdbi;
+                database = startup.async("database", () -> {
+                    DatabaseConfig.prewarm(primary);
+                    DatabaseConfig.migrateSchema(primaryJdbi, config);
+                    log.info("Database initialized successfully");
+                });
 
-            DatabaseConfig.runSchema(jdbi);
+                if (config.hasDbReplica()) {
+                    replica = startup.async("replica", () -> {
+                        HikariDataSource replicaDataSource =
+                                DatabaseConfig.createReplicaDataSource(config, metrics.poolTracker());
+                        DatabaseConfig.prewarm(replicaDataSource);
+                        Jdbi replicaJdbi = DatabaseConfig.initialize(replicaDataSource);
+                        replicaJdbi.setSqlLogger(metrics.queryLogger());
+                        log.info("Read replica configured");
+                        return replicaJdbi;
+                    });
+                }
+            }
 
             // Configure Spark
             port(config.getServerPort());
+            ServerExecution.configure(config.getServerExecutionMode(), config.getServerMaxThreads());
+
+            // Configure JSON output before any Gson instance is created
+            GsonConfig.configure(config.isJsonSerializeNulls());
+
+            // Health probes are mapped first, so the port answers 503 on /health/ready while the rest starts
+            HealthController healthController = new HealthController(startup, GsonConfig.getGson());
+            get("/health/live", healthController::live);
+            get("/health/ready", healthController::ready);
+            startup.time("server", () -> awaitInitialization());
+
+            Jdbi replicaJdbi;
+            try {
+                database.join();
+                replicaJdbi = replica.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
 
             // Configure routes
-            UserRoutes userRoutes = new UserRoutes(jdbi);
-            userRoutes.configure();
+            Jdbi primaryJdbi = jdbi;
+            HikariDataSource primaryDataSource = dataSource;
+            UserRoutes userRoutes = startup.time("services", () -> new UserRoutes(primaryJdbi, replicaJdbi,
+                    primaryDataSource != null ? primaryDataSource.getHikariPoolMXBean() : null, config, metrics));
+            startup.time("routes", userRoutes::configure);
+
+            if (config.isStartupWarmupEnabled()) {
+                StartupWarmup warmup = new StartupWarmup(config.getServerPort(),
+                        config.getStartupWarmupIterations(), config.getStartupWarmupMaxMillis());
+                userRoutes.setRateLimitsEnforced(false);
+                startup.time("warmup", warmup::run);
+                userRoutes.setRateLimitsEnforced(true);
+            }
 
+            startup.markReady();
             log.info("Application started successfully on port {}", config.getServerPort());
 
+            if (config.isStartupExitWhenReady()) {
+                log.info("STARTUP_EXIT_WHEN_READY is set, exiting");
+                System.exit(0);
+            }
+
         } catch (Exception e) {
             log.error("Failed to start application", e);
             System.exit(1);
         }
     }
-    }
\ No newline at end of file
+}
@@ -2,16 +2,17 @@ package org.technoready.config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.postgres.PostgresPlugin;
 import org.jdbi.v3.sqlobject.SqlObjectPlugin;
 
 import javax.sql.DataSource;
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.stream.Collectors;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Database Configuration
@@ -22,9 +23,12 @@ import java.util.stream.Collectors;
 public class DatabaseConfig {
 
     public static Jdbi initialize(EnvConfig config) {
+        return initialize(createDataSource(config));
+    }
+
+    public static Jdbi initialize(DataSource dataSource) {
         log.info("Initializing database configuration...");
 
-        DataSource dataSource = createDataSource(config);
         Jdbi jdbi = Jdbi.create(dataSource);
 
         // Install plugins
@@ -38,7 +42,14 @@ public class DatabaseConfig {
         return jdbi;
     }
 
-    private static DataSource createDataSource(EnvConfig config) {
+    public static HikariDataSource createDataSource(EnvConfig config) {
+        return createDataSource(config, null);
+    }
+
+    /**
+     * Primary pool, reporting connection metrics to the given tracker when one is set
+     */
+    public static HikariDataSource createDataSource(EnvConfig config, MetricsTrackerFactory metricsTracker) {
         HikariConfig hikariConfig = new HikariConfig();
         hikariConfig.setJdbcUrl(config.getDbUrl());
         hikariConfig.setUsername(config.getDbUsername());
@@ -50,36 +61,70 @@ public class DatabaseConfig {
         hikariConfig.setIdleTimeout(config.getHikariIdleTimeout());
         hikariConfig.setMaxLifetime(config.getHikariMaxLifetime());
         hikariConfig.setPoolName("CollectiblesHikariPool");
+        if (metricsTracker != null) {
+            hikariConfig.setMetricsTrackerFactory(metricsTracker);
+        }
 
         return new HikariDataSource(hikariConfig);
     }
 
-    public static void runSchema(Jdbi jdbi) {
-        log.info("Executing database schema...");
+    /**
+     * Read-only pool for the replica
+     * A short connection timeout lets reads fail over quickly; an unreachable replica does not block startup
+     */
+    public static HikariDataSource createReplicaDataSource(EnvConfig config, MetricsTrackerFactory metricsTracker) {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(config.getDbReplicaUrl());
+        hikariConfig.setUsername(config.getDbReplicaUsername());
+        hikariConfig.setPassword(config.getDbReplicaPassword());
+        hikariConfig.setDriverClassName(config.getDbDriver());
+        hikariConfig.setMaximumPoolSize(config.getDbReplicaMaximumPoolSize());
+        hikariConfig.setMinimumIdle(Math.min(config.getHikariMinimumIdle(), config.getDbReplicaMaximumPoolSize()));
+        hikariConfig.setConnectionTimeout(config.getDbReplicaConnectionTimeout());
+        hikariConfig.setIdleTimeout(config.getHikariIdleTimeout());
+        hikariConfig.setMaxLifetime(config.getHikariMaxLifetime());
+        hikariConfig.setReadOnly(true);
+        hikariConfig.setInitializationFailTimeout(-1);
+        hikariConfig.setPoolName("CollectiblesHikariReplicaPool");
+        if (metricsTracker != null) {
+            hikariConfig.setMetricsTrackerFactory(metricsTracker);
+        }
+
+        return new HikariDataSource(hikariConfig);
+    }
 
+    /**
+     * Open minimumIdle connections now instead of letting the pool fill in the background,
+     * so the first requests never wait for a TCP + TLS + auth handshake
+     * Best effort: a pool that cannot connect yet is logged and left to its own retries
+     */
+    public static void prewarm(HikariDataSource dataSource) {
+        int target = dataSource.getMinimumIdle();
+        List<Connection> held = new ArrayList<>(target);
         try {
-            // Read schema.sql from resources
-            InputStream inputStream = DatabaseConfig.class
-                    .getClassLoader()
-                    .getResourceAsStream("db/schema.sql");
-
-            if (inputStream == null) {
-                log.warn("schema.sql file not found in resources/db/");
-                return;
+            while (held.size() < target) {
+                held.add(dataSource.getConnection());
+            }
+            log.info("Pool {} prewarmed with {} connections", dataSource.getPoolName(), held.size());
+        } catch (SQLException e) {
+            log.warn("Pool {} prewarmed with {} of {} connections: {}", dataSource.getPoolName(),
+                    held.size(), target, e.getMessage());
+        } finally {
+            for (Connection connection : held) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Error returning prewarmed connection", e);
+                }
             }
-
-            String schema = new BufferedReader(new InputStreamReader(inputStream))
-                    .lines()
-                    .collect(Collectors.joining("\n"));
-
-            // Execute schema
-            jdbi.useHandle(handle -> handle.execute(schema));
-
-            log.info("Database schema executed successfully");
-
-        } catch (Exception e) {
-            log.error("Error executing database schema", e);
-            throw new RuntimeException("Failed to execute database schema", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Bring the schema up to date, see {@link SchemaMigrator}; sample data only in the dev profile
+     */
+    public static void migrateSchema(Jdbi jdbi, EnvConfig config) {
+        log.info("Checking database schema migrations...");
+        new SchemaMigrator(jdbi, config.isDevProfile(), config.getDbMigrationWaitMillis()).migrate();
+    }
+}
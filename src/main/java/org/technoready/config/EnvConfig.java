@@ -18,12 +18,67 @@ public class EnvConfig {
     private final String dbUsername;
     private final String dbPassword;
     private final String dbDriver;
+    private final String appProfile;
+    private final long dbMigrationWaitMillis;
     private final int hikariMaximumPoolSize;
     private final int hikariMinimumIdle;
     private final long hikariConnectionTimeout;
     private final long hikariIdleTimeout;
     private final long hikariMaxLifetime;
+    private final String dbReplicaUrl;
+    private final String dbReplicaUsername;
+    private final String dbReplicaPassword;
+    private final int dbReplicaMaximumPoolSize;
+    private final long dbReplicaConnectionTimeout;
+    private final long dbReplicaRetryMillis;
+    private final long dbReadYourWritesMillis;
     private final int serverPort;
+    private final String serverExecutionMode;
+    private final int serverMaxThreads;
+    private final boolean startupWarmupEnabled;
+    private final int startupWarmupIterations;
+    private final long startupWarmupMaxMillis;
+    private final boolean startupExitWhenReady;
+    private final boolean concurrencyLimitEnabled;
+    private final int concurrencyMinLimit;
+    private final int concurrencyReadMaxLimit;
+    private final int concurrencyWriteMaxLimit;
+    private final boolean rateLimitEnabled;
+    private final double rateLimitReadPerSecond;
+    private final int rateLimitReadBurst;
+    private final double rateLimitWritePerSecond;
+    private final int rateLimitWriteBurst;
+    private final int rateLimitMaxClients;
+    private final int rateLimitKeysPerIp;
+    private final long rateLimitSweepMillis;
+    private final boolean jsonSerializeNulls;
+    private final boolean responseCompressionEnabled;
+    private final int responseCompressionMinBytes;
+    private final String httpCacheControl;
+    private final boolean accessLogEnabled;
+    private final int accessLogBufferSize;
+    private final double accessLogSampleRate;
+    private final boolean userCacheEnabled;
+    private final int userCacheMaxSize;
+    private final long userCacheTtlMillis;
+    private final boolean userFilterEnabled;
+    private final boolean userSearchEnabled;
+    private final boolean userChangesEnabled;
+    private final int userChangesHistorySize;
+    private final int userChangesBufferSize;
+    private final long userChangesHeartbeatMillis;
+    private final double userFilterFalsePositiveRate;
+    private final int userBatchChunkSize;
+    private final int userBatchMaxSize;
+    private final boolean userGroupCommitEnabled;
+    private final long userGroupCommitWindowMillis;
+    private final int userGroupCommitMaxBatch;
+    private final int userGroupCommitMaxQueue;
+    private final long userGroupCommitTimeoutMillis;
+    private final String userStore;
+    private final String userStoreDir;
+    private final long userStoreSyncMillis;
+    private final long userStoreSnapshotMillis;
 
     private EnvConfig(Dotenv dotenv) {
         // Database Configuration
@@ -32,6 +87,11 @@ public class EnvConfig {
         this.dbPassword = dotenv.get("DB_PASSWORD");
         this.dbDriver = dotenv.get("DB_DRIVER");
 
+        // Schema migrations; sample data is only seeded in the dev profile
+        this.appProfile = dotenv.get("APP_PROFILE", "prod");
+        this.dbMigrationWaitMillis = Long.parseLong(
+                dotenv.get("DB_MIGRATION_WAIT_MS", "10000"));
+
         // HikariCP configuration
         this.hikariMaximumPoolSize = Integer.parseInt(
                 dotenv.get("HikariCP_MaxPoolSize", "10"));
@@ -44,9 +104,150 @@ public class EnvConfig {
         this.hikariMaxLifetime = Long.parseLong(
                 dotenv.get("HikariCP_MaxLifetime", "1800000"));
 
+        // Read replica configuration, reads stay on the primary when DB_REPLICA_URL is unset
+        this.dbReplicaUrl = dotenv.get("DB_REPLICA_URL", null);
+        this.dbReplicaUsername = dotenv.get("DB_REPLICA_USER", dbUsername);
+        this.dbReplicaPassword = dotenv.get("DB_REPLICA_PASSWORD", dbPassword);
+        this.dbReplicaMaximumPoolSize = Integer.parseInt(
+                dotenv.get("DB_REPLICA_MAX_POOL_SIZE", String.valueOf(hikariMaximumPoolSize)));
+        this.dbReplicaConnectionTimeout = Long.parseLong(
+                dotenv.get("DB_REPLICA_CONNECTION_TIMEOUT", "1000"));
+        this.dbReplicaRetryMillis = Long.parseLong(
+                dotenv.get("DB_REPLICA_RETRY_MILLIS", "10000"));
+        this.dbReadYourWritesMillis = Long.parseLong(
+                dotenv.get("DB_READ_YOUR_WRITES_MILLIS", "5000"));
+
         // Server Configuration
         this.serverPort = Integer.parseInt(
                 dotenv.get("SERVER_PORT"));
+        this.serverExecutionMode = dotenv.get("SERVER_EXECUTION_MODE", "platform");
+        this.serverMaxThreads = Integer.parseInt(
+                dotenv.get("SERVER_MAX_THREADS", "200"));
+
+        // Startup: optional loopback warmup before /health/ready turns ready, and an exit right after
+        // readiness for AppCDS training runs
+        this.startupWarmupEnabled = Boolean.parseBoolean(
+                dotenv.get("STARTUP_WARMUP_ENABLED", "false"));
+        this.startupWarmupIterations = Integer.parseInt(
+                dotenv.get("STARTUP_WARMUP_ITERATIONS", "300"));
+        this.startupWarmupMaxMillis = Long.parseLong(
+                dotenv.get("STARTUP_WARMUP_MAX_MS", "15000"));
+        this.startupExitWhenReady = Boolean.parseBoolean(
+                dotenv.get("STARTUP_EXIT_WHEN_READY", "false"));
+
+        // Adaptive concurrency limit (load shedding) configuration
+        this.concurrencyLimitEnabled = Boolean.parseBoolean(
+                dotenv.get("CONCURRENCY_LIMIT_ENABLED", "true"));
+        this.concurrencyMinLimit = Integer.parseInt(
+                dotenv.get("CONCURRENCY_MIN_LIMIT", "4"));
+        this.concurrencyReadMaxLimit = Integer.parseInt(
+                dotenv.get("CONCURRENCY_READ_MAX_LIMIT", "200"));
+        this.concurrencyWriteMaxLimit = Integer.parseInt(
+                dotenv.get("CONCURRENCY_WRITE_MAX_LIMIT", "50"));
+
+        // Per-client rate limits (429 + Retry-After when exceeded)
+        this.rateLimitEnabled = Boolean.parseBoolean(
+                dotenv.get("RATE_LIMIT_ENABLED", "false"));
+        this.rateLimitReadPerSecond = Double.parseDouble(
+                dotenv.get("RATE_LIMIT_READ_PER_SECOND", "50"));
+        this.rateLimitReadBurst = Integer.parseInt(
+                dotenv.get("RATE_LIMIT_READ_BURST", "100"));
+        this.rateLimitWritePerSecond = Double.parseDouble(
+                dotenv.get("RATE_LIMIT_WRITE_PER_SECOND", "10"));
+        this.rateLimitWriteBurst = Integer.parseInt(
+                dotenv.get("RATE_LIMIT_WRITE_BURST", "20"));
+        this.rateLimitMaxClients = Integer.parseInt(
+                dotenv.get("RATE_LIMIT_MAX_CLIENTS", "100000"));
+        this.rateLimitKeysPerIp = Integer.parseInt(
+                dotenv.get("RATE_LIMIT_KEYS_PER_IP", "4"));
+        this.rateLimitSweepMillis = Long.parseLong(
+                dotenv.get("RATE_LIMIT_SWEEP_MS", "10000"));
+
+        // Response encoding configuration
+        this.jsonSerializeNulls = Boolean.parseBoolean(
+                dotenv.get("JSON_SERIALIZE_NULLS", "true"));
+        this.responseCompressionEnabled = Boolean.parseBoolean(
+                dotenv.get("RESPONSE_COMPRESSION_ENABLED", "true"));
+        this.responseCompressionMinBytes = Integer.parseInt(
+                dotenv.get("RESPONSE_COMPRESSION_MIN_BYTES", "1024"));
+        this.httpCacheControl = dotenv.get("HTTP_CACHE_CONTROL", "no-cache");
+
+        // Access log configuration, successful requests are kept with probability ACCESS_LOG_SAMPLE_RATE
+        this.accessLogEnabled = Boolean.parseBoolean(
+                dotenv.get("ACCESS_LOG_ENABLED", "true"));
+        this.accessLogBufferSize = Integer.parseInt(
+                dotenv.get("ACCESS_LOG_BUFFER_SIZE", "8192"));
+        this.accessLogSampleRate = Double.parseDouble(
+                dotenv.get("ACCESS_LOG_SAMPLE_RATE", "1.0"));
+
+        // User cache configuration
+        this.userCacheEnabled = Boolean.parseBoolean(
+                dotenv.get("USER_CACHE_ENABLED", "true"));
+        this.userCacheMaxSize = Integer.parseInt(
+                dotenv.get("USER_CACHE_MAX_SIZE", "10000"));
+        this.userCacheTtlMillis = Long.parseLong(
+                dotenv.get("USER_CACHE_TTL_MS", "30000"));
+
+        // User membership (Bloom) filter configuration
+        this.userFilterEnabled = Boolean.parseBoolean(
+                dotenv.get("USER_FILTER_ENABLED", "true"));
+        this.userFilterFalsePositiveRate = Double.parseDouble(
+                dotenv.get("USER_FILTER_FPP", "0.01"));
+
+        // Typeahead search index, kept in memory (about three terms per user)
+        this.userSearchEnabled = Boolean.parseBoolean(
+                dotenv.get("USER_SEARCH_ENABLED", "true"));
+
+        // Change stream (GET /users/changes), history bounds how far back a client can resume
+        this.userChangesEnabled = Boolean.parseBoolean(
+                dotenv.get("USER_CHANGES_ENABLED", "true"));
+        this.userChangesHistorySize = Integer.parseInt(
+                dotenv.get("USER_CHANGES_HISTORY_SIZE", "10000"));
+        this.userChangesBufferSize = Integer.parseInt(
+                dotenv.get("USER_CHANGES_BUFFER_SIZE", "1024"));
+        this.userChangesHeartbeatMillis = Long.parseLong(
+                dotenv.get("USER_CHANGES_HEARTBEAT_MS", "15000"));
+
+        // Bulk user creation configuration
+        this.userBatchChunkSize = Integer.parseInt(
+                dotenv.get("USER_BATCH_CHUNK_SIZE", "500"));
+        this.userBatchMaxSize = Integer.parseInt(
+                dotenv.get("USER_BATCH_MAX_SIZE", "5000"));
+
+        // Group commit of concurrent single-user inserts (opt-in)
+        this.userGroupCommitEnabled = Boolean.parseBoolean(
+                dotenv.get("USER_GROUP_COMMIT_ENABLED", "false"));
+        this.userGroupCommitWindowMillis = Long.parseLong(
+                dotenv.get("USER_GROUP_COMMIT_WINDOW_MS", "5"));
+        this.userGroupCommitMaxBatch = Integer.parseInt(
+                dotenv.get("USER_GROUP_COMMIT_MAX_BATCH", "100"));
+        this.userGroupCommitMaxQueue = Integer.parseInt(
+                dotenv.get("USER_GROUP_COMMIT_MAX_QUEUE", "1000"));
+        this.userGroupCommitTimeoutMillis = Long.parseLong(
+                dotenv.get("USER_GROUP_COMMIT_TIMEOUT_MS", "5000"));
+
+        // User storage backend: postgres, or memory with a local log and snapshot
+        this.userStore = dotenv.get("USER_STORE", "postgres");
+        this.userStoreDir = dotenv.get("USER_STORE_DIR", "data");
+        this.userStoreSyncMillis = Long.parseLong(
+                dotenv.get("USER_STORE_SYNC_MS", "100"));
+        this.userStoreSnapshotMillis = Long.parseLong(
+                dotenv.get("USER_STORE_SNAPSHOT_MS", "60000"));
+        if (!userStore.equals("postgres") && !userStore.equals("memory")) {
+            throw new IllegalStateException("USER_STORE must be postgres or memory, got: " + userStore);
+        }
+    }
+
+    public boolean hasDbReplica() {
+        return dbReplicaUrl != null && !dbReplicaUrl.isBlank();
+    }
+
+    public boolean isDevProfile() {
+        return "dev".equals(appProfile);
+    }
+
+    public boolean isInMemoryUserStore() {
+        return "memory".equals(userStore);
     }
 
     public static EnvConfig load(Dotenv dotenv) {
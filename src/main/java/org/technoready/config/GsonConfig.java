@@ -2,7 +2,16 @@ package org.technoready.config;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import org.technoready.dto.request.CreateUserRequest;
+import org.technoready.dto.request.UpdateUserRequest;
+import org.technoready.dto.response.SparseUserList;
+import org.technoready.dto.response.UserResponse;
+import org.technoready.util.ApiResponseTypeAdapterFactory;
+import org.technoready.util.CreateUserRequestTypeAdapter;
 import org.technoready.util.LocalDateTimeAdapter;
+import org.technoready.util.SparseUserListTypeAdapter;
+import org.technoready.util.UpdateUserRequestTypeAdapter;
+import org.technoready.util.UserResponseTypeAdapter;
 
 import java.time.LocalDateTime;
 
@@ -10,30 +19,61 @@ import java.time.LocalDateTime;
  * Gson Configuration
  * Centralized Gson instance configuration with custom adapters
  * Follows Single Responsibility Principle
+ * The API DTOs use hand-written adapters, keeping reflection off the request path
  */
 public class GsonConfig {
 
     private static Gson gson;
+    private static Gson prettyGson;
+    private static boolean serializeNulls = true;
+
+    /**
+     * Choose whether null fields are written, must be called before the first getGson()
+     */
+    public static synchronized void configure(boolean serializeNulls) {
+        GsonConfig.serializeNulls = serializeNulls;
+        gson = null;
+        prettyGson = null;
+    }
 
     /**
      * Get configured Gson instance (Singleton pattern)
+     * Produces compact JSON, indentation is only added on request by the response encoder
      */
-    public static Gson getGson() {
+    public static synchronized Gson getGson() {
         if (gson == null) {
             gson = createGson();
         }
         return gson;
     }
 
+    /**
+     * Get the pretty-printing variant, used when a client asks for indented output
+     */
+    public static synchronized Gson getPrettyGson() {
+        if (prettyGson == null) {
+            prettyGson = createGson().newBuilder()
+                    .setPrettyPrinting()
+                    .create();
+        }
+        return prettyGson;
+    }
+
     /**
      * Create and configure Gson instance with custom adapters
      */
     private static Gson createGson() {
-        return new GsonBuilder()
+        GsonBuilder builder = new GsonBuilder()
                 .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                .setPrettyPrinting()
-                .serializeNulls()
-                .create();
+                .registerTypeAdapter(UserResponse.class, new UserResponseTypeAdapter())
+                .registerTypeAdapter(SparseUserList.class, new SparseUserListTypeAdapter())
+                .registerTypeAdapter(CreateUserRequest.class, new CreateUserRequestTypeAdapter())
+                .registerTypeAdapter(UpdateUserRequest.class, new UpdateUserRequestTypeAdapter())
+                .registerTypeAdapterFactory(new ApiResponseTypeAdapterFactory());
+        if (serializeNulls) {
+            builder.serializeNulls();
+        }
+        return builder.create();
     }
 
     /**
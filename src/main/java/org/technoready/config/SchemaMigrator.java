@@ -0,0 +1,228 @@
+package org.technoready.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.StatementException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Schema Migrator
+ * Applies the versioned scripts listed in db/migrations.txt and records each one in schema_history
+ * with a SHA-256 checksum of its text
+ * - up to date: a single query on schema_history, nothing is locked or executed
+ * - pending scripts: one node takes a PostgreSQL advisory lock and applies them, one transaction each;
+ *   the others poll the history until it is done, and start anyway after waitMillis
+ * - a released script whose text changed fails the startup instead of silently diverging
+ * - versions in the history this build does not know (a newer node already migrated) are left alone
+ */
+@Slf4j
+public final class SchemaMigrator {
+
+    private static final String INDEX = "db/migrations.txt";
+    private static final String SEED_PREFIX = "seed/";
+    private static final Pattern SCRIPT_NAME = Pattern.compile("(?:.*/)?V(\\d+)__(\\w+)\\.sql");
+    // Arbitrary but fixed, "users" in ASCII; every node must use the same key
+    private static final long LOCK_KEY = 0x7573657273L;
+    private static final long POLL_MILLIS = 500;
+    private static final String UNDEFINED_TABLE = "42P01";
+
+    private final Jdbi jdbi;
+    private final boolean includeSeeds;
+    private final long waitMillis;
+
+    public SchemaMigrator(Jdbi jdbi, boolean includeSeeds, long waitMillis) {
+        this.jdbi = jdbi;
+        this.includeSeeds = includeSeeds;
+        this.waitMillis = waitMillis;
+    }
+
+    public void migrate() {
+        List<Migration> migrations = loadMigrations();
+        List<Migration> pending = pending(migrations, appliedChecksums());
+        if (pending.isEmpty()) {
+            log.info("Database schema up to date ({} migrations)", migrations.size());
+            return;
+        }
+
+        try (Handle handle = jdbi.open()) {
+            if (handle.createQuery("SELECT pg_try_advisory_lock(:key)").bind("key", LOCK_KEY)
+                    .mapTo(Boolean.class).one()) {
+                try {
+                    applyPending(handle, migrations);
+                } finally {
+                    handle.createQuery("SELECT pg_advisory_unlock(:key)").bind("key", LOCK_KEY)
+                            .mapTo(Boolean.class).one();
+                }
+            } else {
+                awaitOtherNode(migrations);
+            }
+        }
+    }
+
+    /**
+     * Holding the lock; the history is read again since another node may have finished meanwhile
+     */
+    private void applyPending(Handle handle, List<Migration> migrations) {
+        handle.execute("CREATE TABLE IF NOT EXISTS schema_history (" +
+                "version INT PRIMARY KEY, " +
+                "description VARCHAR(200) NOT NULL, " +
+                "script VARCHAR(200) NOT NULL, " +
+                "checksum CHAR(64) NOT NULL, " +
+                "execution_ms BIGINT NOT NULL, " +
+                "installed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        for (Migration migration : pending(migrations, appliedChecksums())) {
+            log.info("Applying migration V{} {}", migration.version, migration.description);
+            long start = System.nanoTime();
+            handle.useTransaction(transaction -> {
+                // Plain JDBC, so the driver rather than the JDBI parser reads the script
+                try (Statement statement = transaction.getConnection().createStatement()) {
+                    statement.execute(migration.sql);
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Migration " + migration.script + " failed", e);
+                }
+                transaction.createUpdate("INSERT INTO schema_history " +
+                                "(version, description, script, checksum, execution_ms) " +
+                                "VALUES (:version, :description, :script, :checksum, :executionMs)")
+                        .bind("version", migration.version)
+                        .bind("description", migration.description)
+                        .bind("script", migration.script)
+                        .bind("checksum", migration.checksum)
+                        .bind("executionMs", (System.nanoTime() - start) / 1_000_000)
+                        .execute();
+            });
+            log.info("Applied migration V{} in {} ms", migration.version, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Another node holds the lock; poll the history instead of piling onto the catalog locks
+     */
+    private void awaitOtherNode(List<Migration> migrations) {
+        log.info("Another node is migrating the database schema, waiting up to {} ms", waitMillis);
+        long deadline = System.nanoTime() + waitMillis * 1_000_000;
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (pending(migrations, appliedChecksums()).isEmpty()) {
+                log.info("Database schema migrated by another node");
+                return;
+            }
+        }
+        log.warn("Database schema migration still running on another node, starting without waiting");
+    }
+
+    /**
+     * Checksums by version from schema_history, empty when the table does not exist yet
+     */
+    private Map<Integer, String> appliedChecksums() {
+        try {
+            return jdbi.withHandle(handle -> handle.createQuery("SELECT version, checksum FROM schema_history")
+                    .reduceResultSet(new HashMap<Integer, String>(), (applied, rs, ctx) -> {
+                        applied.put(rs.getInt("version"), rs.getString("checksum"));
+                        return applied;
+                    }));
+        } catch (StatementException e) {
+            if (e.getCause() instanceof SQLException sql && UNDEFINED_TABLE.equals(sql.getSQLState())) {
+                return Map.of();
+            }
+            throw e;
+        }
+    }
+
+    private static List<Migration> pending(List<Migration> migrations, Map<Integer, String> applied) {
+        List<Migration> pending = new ArrayList<>();
+        for (Migration migration : migrations) {
+            String checksum = applied.get(migration.version);
+            if (checksum == null) {
+                pending.add(migration);
+            } else if (!checksum.trim().equals(migration.checksum)) {
+                throw new IllegalStateException("Migration " + migration.script
+                        + " changed after it was applied, add a new version instead");
+            }
+        }
+        return pending;
+    }
+
+    private List<Migration> loadMigrations() {
+        List<Migration> migrations = new ArrayList<>();
+        Set<Integer> versions = new HashSet<>();
+        for (String line : readResource(INDEX).split("\n")) {
+            String script = line.trim();
+            if (script.isEmpty() || script.startsWith("#")) {
+                continue;
+            }
+            Matcher name = SCRIPT_NAME.matcher(script);
+            if (!name.matches()) {
+                throw new IllegalStateException("Migration name must look like V<version>__<description>.sql: "
+                        + script);
+            }
+            int version = Integer.parseInt(name.group(1));
+            if (!versions.add(version)) {
+                throw new IllegalStateException("Duplicate migration version " + version);
+            }
+            if (script.startsWith(SEED_PREFIX) && !includeSeeds) {
+                continue;
+            }
+            String sql = readResource("db/" + script).replace("\r\n", "\n");
+            migrations.add(new Migration(version, name.group(2).replace('_', ' '), script, sql, sha256(sql)));
+        }
+        return migrations;
+    }
+
+    private static String readResource(String path) {
+        try (InputStream in = SchemaMigrator.class.getClassLoader().getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing migration resource " + path);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read migration resource " + path, e);
+        }
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final String script;
+        private final String sql;
+        private final String checksum;
+
+        private Migration(int version, String description, String script, String sql, String checksum) {
+            this.version = version;
+            this.description = description;
+            this.script = script;
+            this.sql = sql;
+            this.checksum = checksum;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.technoready.controller;
+
+import com.google.gson.Gson;
+import lombok.RequiredArgsConstructor;
+import org.technoready.dto.response.ApiResponse;
+import org.technoready.web.StartupTracker;
+import spark.Request;
+import spark.Response;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Health Controller
+ * Liveness and readiness probes for orchestrators and load balancers
+ */
+@RequiredArgsConstructor
+public class HealthController {
+
+    private final StartupTracker startup;
+    private final Gson gson;
+
+    /**
+     * GET /health/live - The process is up and serving HTTP
+     */
+    public String live(Request request, Response response) {
+        response.type("application/json");
+        response.status(200);
+        return gson.toJson(ApiResponse.success("UP", null));
+    }
+
+    /**
+     * GET /health/ready - 503 until pools are warm, routes are mapped and the optional warmup finished
+     */
+    public String ready(Request request, Response response) {
+        response.type("application/json");
+        if (!startup.isReady()) {
+            response.status(503);
+            response.header("Retry-After", "1");
+            return gson.toJson(ApiResponse.error("Starting"));
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("startupMillis", startup.getStartupMillis());
+        data.put("phases", startup.getPhaseMillis());
+        response.status(200);
+        return gson.toJson(ApiResponse.success("READY", data));
+    }
+}
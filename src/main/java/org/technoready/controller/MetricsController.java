@@ -0,0 +1,25 @@
+package org.technoready.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.technoready.metrics.MetricsRegistry;
+import spark.Request;
+import spark.Response;
+
+/**
+ * Metrics Controller
+ * Serves the metrics registry in the Prometheus text format
+ */
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private final MetricsRegistry metrics;
+
+    /**
+     * GET /metrics - Prometheus scrape endpoint
+     */
+    public String getMetrics(Request request, Response response) {
+        response.status(200);
+        response.type(metrics.getContentType());
+        return metrics.scrape();
+    }
+}
@@ -0,0 +1,41 @@
+package org.technoready.controller;
+
+import com.google.gson.Gson;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.technoready.dto.response.ApiResponse;
+import org.technoready.web.UserChangeStream;
+import spark.Request;
+import spark.Response;
+
+/**
+ * User Changes Controller
+ * Serves the user change stream as Server-Sent Events
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class UserChangesController {
+
+    // Null when the change stream is disabled
+    private final UserChangeStream changeStream;
+    private final Gson gson;
+
+    /**
+     * GET /users/changes - Push every committed user change
+     * Resumes after the Last-Event-ID header (sent by EventSource on reconnect) or the since parameter
+     */
+    public String streamChanges(Request request, Response response) throws Exception {
+        if (changeStream == null) {
+            response.status(503);
+            return gson.toJson(ApiResponse.error("Change stream is disabled"));
+        }
+        String lastEventId = request.headers("Last-Event-ID");
+        if (lastEventId == null) {
+            lastEventId = request.queryParams("since");
+        }
+        log.debug("GET /users/changes - Subscribing after {}", lastEventId);
+        changeStream.subscribe(request.raw(), response.raw(), lastEventId);
+        // Body is written asynchronously, Spark skips committed responses
+        return "";
+    }
+}
@@ -1,19 +1,45 @@
 package org.technoready.controller;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.technoready.dto.Page;
+import org.technoready.dto.UserField;
+import org.technoready.dto.UserQuery;
+import org.technoready.dto.UserSort;
 import org.technoready.dto.request.CreateUserRequest;
 import org.technoready.dto.request.UpdateUserRequest;
 import org.technoready.dto.response.ApiResponse;
+import org.technoready.dto.response.BatchItemResult;
+import org.technoready.dto.response.ErrorResponse;
+import org.technoready.dto.response.SparseUserList;
 import org.technoready.dto.response.UserResponse;
+import org.technoready.dto.response.UserSuggestion;
 import org.technoready.entity.User;
+import org.technoready.exception.PreconditionFailedException;
+import org.technoready.exception.UserNotFoundException;
+import org.technoready.exception.ValidationException;
 import org.technoready.service.UserService;
 import org.technoready.util.UserMapper;
+import org.technoready.web.ETags;
+import org.technoready.web.ResponseEncoder;
 import spark.Request;
 import spark.Response;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 /**
@@ -27,21 +53,60 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class UserController {
 
+    private static final int DEFAULT_PAGE_LIMIT = 50;
+    private static final int MAX_PAGE_LIMIT = 500;
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+    private static final int MAX_SEARCH_LIMIT = 50;
+    private static final String[] LIST_OPTION_PARAMS =
+            {"fields", "sort", "created_after", "created_before", "email_domain", "username"};
+
     private final UserService userService;
     private final Gson gson;
+    private final ResponseEncoder responseEncoder;
+    private final String cacheControl;
 
     /**
-     * GET /users - Retrieve all users
+     * GET /users - Retrieve users one keyset page at a time
+     * Query params: limit, cursor (from the previous page's "next"), fields (sparse fieldset),
+     * filters created_after, created_before, email_domain, username and sort (created_at, -created_at, id, -id)
+     * Filter and sort combinations no index can serve are rejected with 400 instead of scanning the table
+     * The unbounded listing is only returned with the explicit all=true opt-in
+     * Tagged with the table version, read before the rows so a tag never outlives its data
      */
     public String getAllUsers(Request request, Response response) {
-        log.info("GET /users - Fetching all users");
+        log.debug("GET /users - Fetching users");
 
         try {
-            List<User> users = userService.getAllUsers();
-            List<UserResponse> userResponses = UserMapper.toResponseList(users);
+            boolean all = Boolean.parseBoolean(request.queryParams("all"));
+            UserQuery query = all ? null : parseUserQuery(request);
+            if (all && hasListOptions(request)) {
+                throw new IllegalArgumentException("all=true cannot be combined with fields, filters or sort");
+            }
+
+            String etag = ETags.forList(userService.getUsersVersion(), all ? "all" : query.cacheKey());
+            if (notModified(request, response, etag)) {
+                return "";
+            }
+
+            if (all) {
+                return streamAllUsers(request, response);
+            }
+
+            Page<User> page = query.isDefault()
+                    ? userService.getUsersPage(query.getCursor(), query.getLimit())
+                    : userService.findUsers(query);
+            List<UserResponse> userResponses = UserMapper.toResponseList(page.getItems());
+            Object data = query.getFields() == null
+                    ? userResponses
+                    : new SparseUserList(userResponses, query.getFields());
 
             response.status(200);
-            return gson.toJson(ApiResponse.success(userResponses));
+            return gson.toJson(ApiResponse.page(data, page.getNextCursor()));
+
+        } catch (IllegalArgumentException e) {
+            log.debug("Invalid list parameters: {}", e.getMessage());
+            response.status(400);
+            return gson.toJson(ApiResponse.error(e.getMessage()));
 
         } catch (Exception e) {
             log.error("Error fetching users", e);
@@ -50,18 +115,96 @@ public class UserController {
         }
     }
 
+    /**
+     * Stream the whole table inside the usual ApiResponse envelope
+     * Rows are serialized one by one onto the socket, so memory stays flat whatever the table size
+     */
+    private String streamAllUsers(Request request, Response response) throws IOException {
+        HttpServletResponse raw = response.raw();
+        response.status(200);
+        raw.setContentType("application/json");
+
+        JsonWriter writer = gson.newJsonWriter(new BufferedWriter(new OutputStreamWriter(
+                responseEncoder.openStream(request, response), StandardCharsets.UTF_8)));
+        if (responseEncoder.isPrettyRequested(request)) {
+            writer.setIndent("  ");
+        }
+        try {
+            writer.beginObject();
+            writer.name("success").value(true);
+            writer.name("message").nullValue();
+            writer.name("data").beginArray();
+            userService.forEachUser(user ->
+                    gson.toJson(UserMapper.toResponse(user), UserResponse.class, writer));
+            writer.endArray();
+            writer.name("next").nullValue();
+            writer.endObject();
+            // Closing finishes the compressed stream, the servlet container owns the socket
+            writer.close();
+        } catch (RuntimeException | IOException e) {
+            if (!raw.isCommitted()) {
+                // Nothing reached the client yet, fall back to a regular error response
+                raw.resetBuffer();
+                raw.setHeader("Content-Encoding", null);
+                throw e;
+            }
+            // Status line is already sent; the truncated document is the only signal left
+            log.error("Error while streaming users, response truncated", e);
+        }
+
+        // Body already written to the raw stream, Spark skips committed responses
+        return "";
+    }
+
+    /**
+     * GET /users/search?q=&limit= - Typeahead search on username and full name prefixes
+     */
+    public String searchUsers(Request request, Response response) {
+        log.debug("GET /users/search - Searching users");
+
+        try {
+            String query = request.queryParams("q");
+            if (query == null || query.isBlank()) {
+                response.status(400);
+                return gson.toJson(ApiResponse.error("Query parameter q is required"));
+            }
+            int limit = parseLimit(request.queryParams("limit"), DEFAULT_SEARCH_LIMIT, MAX_SEARCH_LIMIT);
+
+            List<UserSuggestion> suggestions = userService.searchUsers(query, limit);
+            response.status(200);
+            return gson.toJson(ApiResponse.success(suggestions));
+
+        } catch (IllegalArgumentException e) {
+            log.debug("Invalid search parameters: {}", e.getMessage());
+            response.status(400);
+            return gson.toJson(ApiResponse.error(e.getMessage()));
+
+        } catch (IllegalStateException e) {
+            response.status(503);
+            return gson.toJson(ApiResponse.error(e.getMessage()));
+
+        } catch (Exception e) {
+            log.error("Error searching users", e);
+            response.status(500);
+            return gson.toJson(ApiResponse.error("Failed to search users: " + e.getMessage()));
+        }
+    }
+
     /**
      * GET /users/:id - Retrieve user by ID
      */
     public String getUserById(Request request, Response response) {
         String idParam = request.params(":id");
-        log.info("GET /users/{} - Fetching user by id", idParam);
+        log.debug("GET /users/{} - Fetching user by id", idParam);
 
         try {
             Long id = Long.parseLong(idParam);
             Optional<User> user = userService.getUserById(id);
 
             if (user.isPresent()) {
+                if (notModified(request, response, ETags.forUser(user.get()))) {
+                    return "";
+                }
                 UserResponse userResponse = UserMapper.toResponse(user.get());
                 response.status(200);
                 return gson.toJson(ApiResponse.success(userResponse));
@@ -71,7 +214,7 @@ public class UserController {
             }
 
         } catch (NumberFormatException e) {
-            log.error("Invalid user id format: {}", idParam);
+            log.debug("Invalid user id format: {}", idParam);
             response.status(400);
             return gson.toJson(ApiResponse.error("Invalid user id format"));
 
@@ -86,7 +229,7 @@ public class UserController {
      * POST /users - Create new user
      */
     public String createUser(Request request, Response response) {
-        log.info("POST /users - Creating new user");
+        log.debug("POST /users - Creating new user");
 
         try {
             CreateUserRequest createRequest = gson.fromJson(request.body(), CreateUserRequest.class);
@@ -102,8 +245,11 @@ public class UserController {
             response.status(201);
             return gson.toJson(ApiResponse.success("User created successfully", userResponse));
 
+        } catch (ValidationException e) {
+            return validationFailed(response, e);
+
         } catch (IllegalArgumentException e) {
-            log.error("Validation error creating user", e);
+            log.debug("Rejected user creation: {}", e.getMessage());
             response.status(400);
             return gson.toJson(ApiResponse.error(e.getMessage()));
 
@@ -114,12 +260,54 @@ public class UserController {
         }
     }
 
+    /**
+     * POST /users/batch - Create many users in one transaction
+     * Body is a JSON array of create requests; the outcome is reported per element
+     */
+    public String createUsersBatch(Request request, Response response) {
+        log.debug("POST /users/batch - Creating users in batch");
+
+        try {
+            CreateUserRequest[] createRequests = gson.fromJson(request.body(), CreateUserRequest[].class);
+
+            if (createRequests == null || createRequests.length == 0) {
+                response.status(400);
+                return gson.toJson(ApiResponse.error("Request body must be a non-empty array of users"));
+            }
+
+            List<BatchItemResult> results = userService.createUsers(Arrays.asList(createRequests));
+            long created = results.stream()
+                    .filter(result -> result.getStatus() == BatchItemResult.Status.CREATED)
+                    .count();
+
+            response.status(200);
+            return gson.toJson(ApiResponse.success(
+                    "Created " + created + " of " + results.size() + " users", results));
+
+        } catch (JsonParseException e) {
+            log.debug("Malformed batch request body: {}", e.getMessage());
+            response.status(400);
+            return gson.toJson(ApiResponse.error("Request body must be a JSON array of users"));
+
+        } catch (IllegalArgumentException e) {
+            log.debug("Rejected batch creation: {}", e.getMessage());
+            response.status(400);
+            return gson.toJson(ApiResponse.error(e.getMessage()));
+
+        } catch (Exception e) {
+            log.error("Error creating users in batch", e);
+            response.status(500);
+            return gson.toJson(ApiResponse.error("Failed to create users: " + e.getMessage()));
+        }
+    }
+
     /**
      * PUT /users/:id - Update user
+     * With If-Match the update only applies while the user is still at one of the given versions
      */
     public String updateUser(Request request, Response response) {
         String idParam = request.params(":id");
-        log.info("PUT /users/{} - Updating user", idParam);
+        log.debug("PUT /users/{} - Updating user", idParam);
 
         try {
             Long id = Long.parseLong(idParam);
@@ -130,19 +318,37 @@ public class UserController {
                 return gson.toJson(ApiResponse.error("Request body is required"));
             }
 
-            User user = userService.updateUser(id, updateRequest);
+            String ifMatch = request.headers("If-Match");
+            List<LocalDateTime> expectedVersions = ifMatch == null ? null : ETags.parseUserVersions(ifMatch, id);
+            User user = expectedVersions == null
+                    ? userService.updateUser(id, updateRequest)
+                    : userService.updateUserIfUnmodified(id, updateRequest, expectedVersions);
             UserResponse userResponse = UserMapper.toResponse(user);
 
+            response.header("ETag", ETags.forUser(user));
             response.status(200);
             return gson.toJson(ApiResponse.success("User updated successfully", userResponse));
 
         } catch (NumberFormatException e) {
-            log.error("Invalid user id format: {}", idParam);
+            log.debug("Invalid user id format: {}", idParam);
             response.status(400);
             return gson.toJson(ApiResponse.error("Invalid user id format"));
 
+        } catch (UserNotFoundException e) {
+            log.debug("User to update not found: {}", idParam);
+            response.status(404);
+            return gson.toJson(ApiResponse.error(e.getMessage()));
+
+        } catch (PreconditionFailedException e) {
+            log.debug("If-Match precondition failed for user {}", idParam);
+            response.status(412);
+            return gson.toJson(ApiResponse.error(e.getMessage()));
+
+        } catch (ValidationException e) {
+            return validationFailed(response, e);
+
         } catch (IllegalArgumentException e) {
-            log.error("Validation error updating user", e);
+            log.debug("Rejected user update: {}", e.getMessage());
             response.status(400);
             return gson.toJson(ApiResponse.error(e.getMessage()));
 
@@ -158,7 +364,7 @@ public class UserController {
      */
     public String deleteUser(Request request, Response response) {
         String idParam = request.params(":id");
-        log.info("DELETE /users/{} - Deleting user", idParam);
+        log.debug("DELETE /users/{} - Deleting user", idParam);
 
         try {
             Long id = Long.parseLong(idParam);
@@ -173,7 +379,7 @@ public class UserController {
             }
 
         } catch (NumberFormatException e) {
-            log.error("Invalid user id format: {}", idParam);
+            log.debug("Invalid user id format: {}", idParam);
             response.status(400);
             return gson.toJson(ApiResponse.error("Invalid user id format"));
 
@@ -189,7 +395,7 @@ public class UserController {
      */
     public String checkUserExists(Request request, Response response) {
         String idParam = request.params(":id");
-        log.info("OPTIONS /users/{} - Checking if user exists", idParam);
+        log.debug("OPTIONS /users/{} - Checking if user exists", idParam);
 
         try {
             Long id = Long.parseLong(idParam);
@@ -204,7 +410,7 @@ public class UserController {
             }
 
         } catch (NumberFormatException e) {
-            log.error("Invalid user id format: {}", idParam);
+            log.debug("Invalid user id format: {}", idParam);
             response.status(400);
             return gson.toJson(ApiResponse.error("Invalid user id format"));
 
@@ -214,4 +420,106 @@ public class UserController {
             return gson.toJson(ApiResponse.error("Failed to check user existence: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 400 listing every rejected field; routine traffic, the access log already records it
+     */
+    private String validationFailed(Response response, ValidationException e) {
+        log.debug("Rejected invalid request: {}", e.getMessage());
+        response.status(400);
+        return gson.toJson(ErrorResponse.builder()
+                .error("Bad Request")
+                .message(e.getMessage())
+                .status(400)
+                .errors(e.getErrors())
+                .build());
+    }
+
+    /**
+     * Set the validators for a GET and answer 304 when the client already holds this version
+     */
+    private boolean notModified(Request request, Response response, String etag) {
+        response.header("ETag", etag);
+        response.header("Cache-Control", cacheControl);
+        if (ETags.matches(request.headers("If-None-Match"), etag)) {
+            response.status(304);
+            responseEncoder.tagNotModified(request, response);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Build and validate the GET /users query, blank parameters count as absent
+     */
+    private UserQuery parseUserQuery(Request request) {
+        String fields = blankToNull(request.queryParams("fields"));
+        String sort = blankToNull(request.queryParams("sort"));
+        String emailDomain = blankToNull(request.queryParams("email_domain"));
+        UserQuery query = UserQuery.builder()
+                .limit(parseLimit(request.queryParams("limit")))
+                .cursor(request.queryParams("cursor"))
+                .fields(fields == null ? null : UserField.parseList(fields))
+                .sort(sort == null ? UserSort.CREATED_AT : UserSort.parse(sort))
+                .createdAfter(parseTimestamp("created_after", request.queryParams("created_after")))
+                .createdBefore(parseTimestamp("created_before", request.queryParams("created_before")))
+                .emailDomain(emailDomain == null ? null : emailDomain.trim().toLowerCase(Locale.ROOT))
+                .username(blankToNull(request.queryParams("username")))
+                .build();
+        query.validate();
+        return query;
+    }
+
+    private static boolean hasListOptions(Request request) {
+        for (String param : LIST_OPTION_PARAMS) {
+            if (blankToNull(request.queryParams(param)) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * ISO local date-time, or a bare date meaning its start of day
+     */
+    private static LocalDateTime parseTimestamp(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            return trimmed.length() == 10
+                    ? LocalDate.parse(trimmed).atStartOfDay()
+                    : LocalDateTime.parse(trimmed);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    /**
+     * Parse the page size, falling back to the default and capping at the maximum
+     */
+    private int parseLimit(String limitParam) {
+        return parseLimit(limitParam, DEFAULT_PAGE_LIMIT, MAX_PAGE_LIMIT);
+    }
+
+    private int parseLimit(String limitParam, int defaultLimit, int maxLimit) {
+        if (limitParam == null || limitParam.isBlank()) {
+            return defaultLimit;
+        }
+        int limit;
+        try {
+            limit = Integer.parseInt(limitParam.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid limit: " + limitParam);
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be greater than zero");
+        }
+        return Math.min(limit, maxLimit);
+    }
+}
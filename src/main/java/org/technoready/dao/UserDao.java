@@ -1,36 +1,108 @@
 package org.technoready.dao;
 
+import org.jdbi.v3.core.result.ResultIterable;
 import org.jdbi.v3.sqlobject.config.RegisterBeanMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindBean;
+import org.jdbi.v3.sqlobject.customizer.BindList;
+import org.jdbi.v3.sqlobject.customizer.FetchSize;
+import org.jdbi.v3.sqlobject.statement.BatchChunkSize;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 import org.technoready.entity.User;
 
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @RegisterBeanMapper(User.class)
 public interface UserDao {
 
-    @SqlUpdate("INSERT INTO users (username, email, full_name, created_at, updated_at)" +
-                "VALUES (:username, :email, :fullName, :createdAt, :updatedAt)")
+    // Empty when the username is already taken
+    @SqlQuery("INSERT INTO users (username, email, full_name, created_at, updated_at) " +
+            "VALUES (:username, :email, :fullName, :createdAt, :updatedAt) " +
+            "ON CONFLICT (username) DO NOTHING RETURNING *")
+    Optional<User> insertIfAbsent(@BindBean User user);
+
+    // Conflicting usernames are skipped, only inserted rows come back as generated keys
+    @SqlBatch("INSERT INTO users (username, email, full_name, created_at, updated_at) " +
+            "VALUES (:username, :email, :fullName, :createdAt, :updatedAt) " +
+            "ON CONFLICT (username) DO NOTHING")
+    // Inserted rows come back whole (RETURNING *), with the timestamps as stored
     @GetGeneratedKeys
-    long insert(@BindBean User user);
+    List<User> insertBatch(@BindBean List<User> users, @BatchChunkSize int chunkSize);
 
     @SqlQuery("SELECT * FROM users")
     List<User> findAll();
 
-    @SqlQuery("SELECT * FROM users WHERE username = :username")
-    Optional<User> findByUsername(@Bind("username") String username);
+    // Server-side cursor: only fetchSize rows are held in memory, must run inside a transaction
+    @SqlQuery("SELECT * FROM users ORDER BY id")
+    ResultIterable<User> streamAll(@FetchSize int fetchSize);
+
+    @SqlQuery("SELECT id FROM users")
+    ResultIterable<Long> streamIds(@FetchSize int fetchSize);
+
+    // Planner estimate, avoids a full count on large tables; -1 or 0 until the table is analyzed
+    @SqlQuery("SELECT GREATEST(reltuples, 0)::bigint FROM pg_class WHERE oid = 'users'::regclass")
+    long estimateCount();
+
+    @SqlQuery("SELECT count(*) FROM users")
+    long count();
+
+    // Highest id handed out so far, committed or not
+    @SqlQuery("SELECT COALESCE(pg_sequence_last_value(pg_get_serial_sequence('users', 'id')::regclass), 0)")
+    long lastIssuedId();
+
+    @SqlQuery("SELECT clock_timestamp()")
+    OffsetDateTime databaseNow();
+
+    // Other sessions in a transaction begun before :since that may hold an uncommitted id: they have
+    // written (own an xid) or are inside a statement; run outside a transaction, which would freeze the view
+    @SqlQuery("SELECT count(*) FROM pg_stat_activity " +
+            "WHERE datname = current_database() AND backend_type = 'client backend' " +
+            "AND pid <> pg_backend_pid() AND xact_start < :since " +
+            "AND (backend_xid IS NOT NULL OR state = 'active')")
+    long countWritersSince(@Bind("since") OffsetDateTime since);
+
+    // Keyset pages walk idx_users_created_at; id only breaks ties between equal timestamps
+    @SqlQuery("SELECT * FROM users ORDER BY created_at, id LIMIT :limit")
+    List<User> findFirstPage(@Bind("limit") int limit);
+
+    @SqlQuery("SELECT * FROM users " +
+            "WHERE created_at >= :createdAt AND (created_at > :createdAt OR id > :id) " +
+            "ORDER BY created_at, id LIMIT :limit")
+    List<User> findPageAfter(@Bind("createdAt") LocalDateTime createdAt,
+                             @Bind("id") long id,
+                             @Bind("limit") int limit);
 
     @SqlQuery("SELECT * FROM users WHERE id = :id")
     Optional<User> findById(@Bind("id") Long id);
 
-    @SqlUpdate("UPDATE users SET email = :email, full_name = :fullName, updated_at = :updatedAt " +
-            "WHERE id = :id")
-    int update(@BindBean User user);
+    // Null fields keep their current value; empty when the id does not exist
+    @SqlQuery("UPDATE users SET email = COALESCE(:email, email), " +
+            "full_name = COALESCE(:fullName, full_name), updated_at = :updatedAt " +
+            "WHERE id = :id RETURNING *")
+    Optional<User> updatePartial(@Bind("id") long id,
+                                 @Bind("email") String email,
+                                 @Bind("fullName") String fullName,
+                                 @Bind("updatedAt") LocalDateTime updatedAt);
+
+    // Optimistic variant: only applied while updated_at still holds one of the expected versions
+    @SqlQuery("UPDATE users SET email = COALESCE(:email, email), " +
+            "full_name = COALESCE(:fullName, full_name), updated_at = :updatedAt " +
+            "WHERE id = :id AND updated_at IN (<expected>) RETURNING *")
+    Optional<User> updatePartialIfUnmodified(@Bind("id") long id,
+                                             @Bind("email") String email,
+                                             @Bind("fullName") String fullName,
+                                             @Bind("updatedAt") LocalDateTime updatedAt,
+                                             @BindList("expected") List<LocalDateTime> expected);
+
+    // Sum of the users_version_slots, bumped once by every transaction that changes users
+    @SqlQuery("SELECT COALESCE(sum(version), 0)::bigint FROM users_version_slots")
+    long currentVersion();
 
     @SqlUpdate("DELETE FROM users WHERE id = :id")
     int delete(@Bind("id") Long id);
@@ -0,0 +1,106 @@
+package org.technoready.dao;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.statement.Query;
+import org.technoready.dto.UserField;
+import org.technoready.dto.UserQuery;
+import org.technoready.dto.UserSort;
+import org.technoready.util.UserCursor;
+
+import java.util.Set;
+
+/**
+ * User Query Compiler
+ * Turns a validated UserQuery into one parameterized SELECT; user input only ever reaches the SQL as
+ * bound values, column names and orders come from the UserField / UserSort whitelists
+ * - username -> username = :username (unique constraint index)
+ * - created_after / created_before -> created_at range on idx_users_created_at
+ * - email_domain -> lower(split_part(email, '@', 2)) = :emailDomain on idx_users_email_domain
+ * The keyset position is written in the same expanded form as UserDao.findPageAfter so the planner
+ * turns it into an index range
+ */
+public final class UserQueryCompiler {
+
+    private static final String DOMAIN_EXPRESSION = "lower(split_part(email, '@', 2))";
+
+    private UserQueryCompiler() {
+    }
+
+    public static Query compile(Handle handle, UserQuery query, int fetchSize) {
+        StringBuilder sql = new StringBuilder(256).append("SELECT ");
+        appendColumns(sql, query.getFields());
+        sql.append(" FROM users");
+
+        String separator = " WHERE ";
+        if (query.getUsername() != null) {
+            sql.append(separator).append("username = :username");
+            separator = " AND ";
+        }
+        if (query.getEmailDomain() != null) {
+            sql.append(separator).append(DOMAIN_EXPRESSION).append(" = :emailDomain");
+            separator = " AND ";
+        }
+        if (query.getCreatedAfter() != null) {
+            sql.append(separator).append("created_at > :createdAfter");
+            separator = " AND ";
+        }
+        if (query.getCreatedBefore() != null) {
+            sql.append(separator).append("created_at < :createdBefore");
+            separator = " AND ";
+        }
+
+        UserCursor position = query.getCursor() == null || query.getCursor().isBlank()
+                ? null
+                : UserCursor.decode(query.getCursor());
+        UserSort sort = query.getSort();
+        if (position != null) {
+            String beyond = sort.isDescending() ? "<" : ">";
+            sql.append(separator);
+            if (sort.isByCreatedAt()) {
+                sql.append("created_at ").append(beyond).append("= :afterCreatedAt AND (created_at ")
+                        .append(beyond).append(" :afterCreatedAt OR id ").append(beyond).append(" :afterId)");
+            } else {
+                sql.append("id ").append(beyond).append(" :afterId");
+            }
+        }
+
+        sql.append(" ORDER BY ").append(sort.getOrderBy()).append(" LIMIT :limit");
+
+        Query statement = handle.createQuery(sql.toString()).bind("limit", fetchSize);
+        if (query.getUsername() != null) {
+            statement.bind("username", query.getUsername());
+        }
+        if (query.getEmailDomain() != null) {
+            statement.bind("emailDomain", query.getEmailDomain());
+        }
+        if (query.getCreatedAfter() != null) {
+            statement.bind("createdAfter", query.getCreatedAfter());
+        }
+        if (query.getCreatedBefore() != null) {
+            statement.bind("createdBefore", query.getCreatedBefore());
+        }
+        if (position != null) {
+            statement.bind("afterId", position.getId());
+            if (sort.isByCreatedAt()) {
+                statement.bind("afterCreatedAt", position.getCreatedAt());
+            }
+        }
+        return statement;
+    }
+
+    /**
+     * Only the selected columns, plus id and created_at which the next cursor is built from
+     */
+    private static void appendColumns(StringBuilder sql, Set<UserField> fields) {
+        if (fields == null) {
+            sql.append('*');
+            return;
+        }
+        sql.append("id, created_at");
+        for (UserField field : fields) {
+            if (field != UserField.ID && field != UserField.CREATED_AT) {
+                sql.append(", ").append(field.getColumn());
+            }
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package org.technoready.dao.memory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.technoready.entity.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * In-Memory User Store
+ * Storage engine holding every user in process memory, the counterpart of UserDao:
+ * - primary map keyed by primitive id (LongUserMap), lock-free reads
+ * - unique username index, claimed with putIfAbsent before a row exists
+ * - (createdAt, id) ordered index for keyset pages
+ * Every change is appended to the UserLog inside the row's stripe lock, so log order matches
+ * map order per user; periodic snapshots bound the log and the time needed to recover
+ * Without a directory nothing is persisted
+ */
+@Slf4j
+public final class InMemoryUserStore implements AutoCloseable {
+
+    private static final Comparator<User> BY_ID = Comparator.comparingLong(User::getId);
+
+    private final LongUserMap rows;
+    private final Map<String, Long> usernames;
+    private final NavigableMap<PageKey, User> byCreatedAt = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence;
+    // Seeded from the clock, list ETags issued before a restart never match the recovered data
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis() * 1_000L);
+    private final Path directory;
+    private final UserLog userLog;
+    private final ScheduledExecutorService maintenance;
+
+    private InMemoryUserStore(Path directory, List<User> recovered, long lastId, long generation,
+                              long syncMillis, long snapshotMillis) {
+        this.directory = directory;
+        this.rows = new LongUserMap(recovered.size());
+        this.usernames = new ConcurrentHashMap<>(Math.max(16, recovered.size() * 4 / 3 + 1));
+        this.sequence = new AtomicLong(lastId);
+        for (User user : recovered) {
+            rows.compute(user.getId(), current -> user);
+            usernames.put(user.getUsername(), user.getId());
+            byCreatedAt.put(PageKey.of(user), user);
+        }
+
+        if (directory == null) {
+            this.userLog = null;
+            this.maintenance = null;
+            return;
+        }
+        this.userLog = UserLog.open(directory, generation, syncMillis <= 0);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-store-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (syncMillis > 0) {
+            maintenance.scheduleWithFixedDelay(this::syncQuietly, syncMillis, syncMillis, TimeUnit.MILLISECONDS);
+        }
+        if (snapshotMillis > 0) {
+            maintenance.scheduleWithFixedDelay(this::snapshotQuietly, snapshotMillis, snapshotMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Open a store persisted in the given directory, recovering snapshot and log first
+     * syncMillis 0 forces every write to disk before it returns; a positive value syncs in the
+     * background, trading up to that window of writes on power loss for much cheaper writes
+     * snapshotMillis 0 only snapshots on close
+     */
+    public static InMemoryUserStore open(Path directory, long syncMillis, long snapshotMillis) {
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create user store directory " + directory, e);
+        }
+
+        UserSnapshot.Contents snapshot = UserSnapshot.read(directory);
+        Map<Long, User> recovered = new HashMap<>(Math.max(16, snapshot.getUsers().size() * 4 / 3 + 1));
+        long[] lastId = {snapshot.getSequence()};
+        for (User user : snapshot.getUsers()) {
+            recovered.put(user.getId(), user);
+            lastId[0] = Math.max(lastId[0], user.getId());
+        }
+        long generation = UserLog.replay(directory, snapshot.getGeneration(),
+                user -> {
+                    recovered.put(user.getId(), user);
+                    lastId[0] = Math.max(lastId[0], user.getId());
+                },
+                recovered::remove);
+
+        InMemoryUserStore store = new InMemoryUserStore(directory, new ArrayList<>(recovered.values()),
+                lastId[0], generation, syncMillis, snapshotMillis);
+        log.info("User store recovered {} users from {} in {} ms", recovered.size(), directory,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return store;
+    }
+
+    /**
+     * Store without persistence, everything is lost when the process exits
+     */
+    public static InMemoryUserStore transientStore() {
+        return new InMemoryUserStore(null, new ArrayList<>(), 0, 0, 0, 0);
+    }
+
+    /**
+     * Insert a new user with the next id, empty when the username is already taken
+     */
+    public Optional<User> insertIfAbsent(User candidate) {
+        long id = sequence.incrementAndGet();
+        if (usernames.putIfAbsent(candidate.getUsername(), id) != null) {
+            return Optional.empty();
+        }
+        LocalDateTime createdAt = truncate(candidate.getCreatedAt());
+        User row = new User(id, candidate.getUsername(), candidate.getEmail(), candidate.getFullName(),
+                createdAt, createdAt);
+        try {
+            rows.compute(id, current -> {
+                append(row);
+                byCreatedAt.put(PageKey.of(row), row);
+                return row;
+            });
+        } catch (RuntimeException e) {
+            usernames.remove(row.getUsername(), id);
+            throw e;
+        }
+        version.incrementAndGet();
+        return Optional.of(copy(row));
+    }
+
+    public Optional<User> findById(long id) {
+        User row = rows.get(id);
+        return row == null ? Optional.empty() : Optional.of(copy(row));
+    }
+
+    public boolean exists(long id) {
+        return rows.get(id) != null;
+    }
+
+    /**
+     * Apply the non-null fields to the user, empty when it does not exist
+     * With expected versions the update only happens while updatedAt is one of them
+     */
+    public Optional<User> updatePartial(long id, String email, String fullName, List<LocalDateTime> expectedVersions) {
+        User[] updated = new User[1];
+        rows.compute(id, current -> {
+            if (current == null) {
+                return null;
+            }
+            if (expectedVersions != null && !expectedVersions.contains(current.getUpdatedAt())) {
+                return current;
+            }
+            User next = new User(id, current.getUsername(),
+                    email != null ? email : current.getEmail(),
+                    fullName != null ? fullName : current.getFullName(),
+                    current.getCreatedAt(), nextVersion(current.getUpdatedAt()));
+            append(next);
+            byCreatedAt.put(PageKey.of(next), next);
+            updated[0] = next;
+            return next;
+        });
+        if (updated[0] == null) {
+            return Optional.empty();
+        }
+        version.incrementAndGet();
+        return Optional.of(copy(updated[0]));
+    }
+
+    public boolean delete(long id) {
+        boolean[] deleted = {false};
+        rows.compute(id, current -> {
+            if (current == null) {
+                return null;
+            }
+            if (userLog != null) {
+                userLog.appendDelete(id);
+            }
+            byCreatedAt.remove(PageKey.of(current));
+            usernames.remove(current.getUsername(), id);
+            deleted[0] = true;
+            return null;
+        });
+        if (deleted[0]) {
+            version.incrementAndGet();
+        }
+        return deleted[0];
+    }
+
+    /**
+     * Keyset page ordered by (createdAt, id), starting after the given position or at the start when null
+     */
+    public List<User> findPage(LocalDateTime afterCreatedAt, long afterId, int limit) {
+        return findPage(null, null, false, afterCreatedAt, afterId, row -> true, limit);
+    }
+
+    /**
+     * Keyset page in creation order restricted to the exclusive (from, to) range, either bound optional
+     * Descending pages walk the index backwards; rows failing the filter are skipped, not counted
+     */
+    public List<User> findPage(LocalDateTime from, LocalDateTime to, boolean descending,
+                               LocalDateTime afterCreatedAt, long afterId, Predicate<User> filter, int limit) {
+        PageKey lower = from == null ? null : new PageKey(from, Long.MAX_VALUE);
+        PageKey upper = to == null ? null : new PageKey(to, Long.MIN_VALUE);
+        if (afterCreatedAt != null) {
+            // The position narrows the range on the side the walk starts from
+            PageKey position = new PageKey(afterCreatedAt, afterId);
+            if (descending) {
+                upper = upper == null || position.compareTo(upper) < 0 ? position : upper;
+            } else {
+                lower = lower == null || position.compareTo(lower) > 0 ? position : lower;
+            }
+        }
+        if (lower != null && upper != null && lower.compareTo(upper) >= 0) {
+            return new ArrayList<>();
+        }
+        NavigableMap<PageKey, User> range = lower == null
+                ? (upper == null ? byCreatedAt : byCreatedAt.headMap(upper, false))
+                : (upper == null ? byCreatedAt.tailMap(lower, false) : byCreatedAt.subMap(lower, false, upper, false));
+        if (descending) {
+            range = range.descendingMap();
+        }
+        List<User> page = new ArrayList<>(Math.min(limit, 1024));
+        for (User row : range.values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            if (filter.test(row)) {
+                page.add(copy(row));
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Keyset page in id order, probing the ids after the given one instead of sorting the table
+     * Ids are handed out sequentially, so only deleted ids and lost username races are probed in vain
+     * Start with 0 ascending or Long.MAX_VALUE descending
+     */
+    public List<User> findPageById(long afterId, boolean descending, int limit) {
+        List<User> page = new ArrayList<>(Math.min(limit, 1024));
+        long last = sequence.get();
+        if (descending) {
+            for (long id = Math.min(afterId - 1, last); id > 0 && page.size() < limit; id--) {
+                addCopy(page, rows.get(id));
+            }
+        } else {
+            for (long id = Math.max(afterId, 0) + 1; id <= last && page.size() < limit; id++) {
+                addCopy(page, rows.get(id));
+            }
+        }
+        return page;
+    }
+
+    public Optional<User> findByUsername(String username) {
+        Long id = usernames.get(username);
+        return id == null ? Optional.empty() : findById(id);
+    }
+
+    public List<User> findAll() {
+        List<User> all = new ArrayList<>(rows.size());
+        rows.forEach(row -> all.add(copy(row)));
+        return all;
+    }
+
+    /**
+     * Visit every user in id order; only the row references are collected, each user is copied as it is visited
+     */
+    public void forEachOrderedById(Consumer<User> consumer) {
+        List<User> ordered = new ArrayList<>(rows.size());
+        rows.forEach(ordered::add);
+        ordered.sort(BY_ID);
+        for (User row : ordered) {
+            consumer.accept(copy(row));
+        }
+    }
+
+    public int count() {
+        return rows.size();
+    }
+
+    /**
+     * Changes whenever any user is written, the equivalent of the users_version_slots table
+     */
+    public long currentVersion() {
+        return version.get();
+    }
+
+    /**
+     * Write a snapshot and drop the log generations it covers; a no-op when nothing changed
+     * Writers keep going meanwhile, their records land in the new generation and are replayed on top
+     */
+    public synchronized void snapshot() {
+        if (userLog == null || userLog.recordsSinceRotate() == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        long generation = userLog.rotate();
+        List<User> all = new ArrayList<>(rows.size());
+        rows.forEach(all::add);
+        UserSnapshot.write(directory, generation, sequence.get(), all);
+        UserLog.deleteBefore(directory, generation);
+        log.info("User store snapshot of {} users written in {} ms", all.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Snapshot and flush everything, for a clean shutdown
+     */
+    @Override
+    public synchronized void close() {
+        if (userLog == null) {
+            return;
+        }
+        maintenance.shutdownNow();
+        snapshot();
+        userLog.close();
+    }
+
+    private void append(User row) {
+        if (userLog != null) {
+            userLog.appendPut(row);
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            userLog.sync();
+        } catch (RuntimeException e) {
+            log.error("Cannot sync user log: {}", e.getMessage());
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            log.error("Cannot write user snapshot: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Microsecond precision like the PostgreSQL column, so version ETags round-trip exactly
+     */
+    private static LocalDateTime truncate(LocalDateTime value) {
+        return (value != null ? value : LocalDateTime.now()).truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /**
+     * Strictly after the previous version, two updates within one microsecond still get distinct ETags
+     */
+    private static LocalDateTime nextVersion(LocalDateTime previous) {
+        LocalDateTime now = truncate(LocalDateTime.now());
+        return now.isAfter(previous) ? now : previous.plus(1, ChronoUnit.MICROS);
+    }
+
+    /**
+     * Stored rows are never mutated; callers get their own copy
+     */
+    private static void addCopy(List<User> page, User row) {
+        if (row != null) {
+            page.add(copy(row));
+        }
+    }
+
+    private static User copy(User row) {
+        return new User(row.getId(), row.getUsername(), row.getEmail(), row.getFullName(),
+                row.getCreatedAt(), row.getUpdatedAt());
+    }
+
+    /**
+     * Position of a user in creation order, the id breaks ties between equal timestamps
+     */
+    private static final class PageKey implements Comparable<PageKey> {
+        private final LocalDateTime createdAt;
+        private final long id;
+
+        private PageKey(LocalDateTime createdAt, long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        private static PageKey of(User user) {
+            return new PageKey(user.getCreatedAt(), user.getId());
+        }
+
+        @Override
+        public int compareTo(PageKey other) {
+            int byTime = createdAt.compareTo(other.createdAt);
+            return byTime != 0 ? byTime : Long.compare(id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof PageKey && compareTo((PageKey) other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(id);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package org.technoready.dao.memory;
+
+import org.technoready.entity.User;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Long User Map
+ * Concurrent map from primitive long id to User, without boxing:
+ * - 64 stripes, each an open-addressing table with linear probing
+ * - reads are optimistic (StampedLock), so an uncontended lookup takes no lock at all
+ * - writes lock one stripe; {@link #compute} runs the caller's side effects under that lock
+ * Ids must be positive, 0 marks an empty slot
+ */
+final class LongUserMap {
+
+    private static final int STRIPE_BITS = 6;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final int MIN_CAPACITY = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    LongUserMap(int expectedSize) {
+        int wanted = Math.max(MIN_CAPACITY, expectedSize / STRIPES * 4 / 3 + 1);
+        int perStripe = Integer.highestOneBit(wanted - 1) << 1;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    User get(long id) {
+        if (id <= 0) {
+            return null;
+        }
+        long hash = mix(id);
+        Stripe stripe = stripes[(int) hash & (STRIPES - 1)];
+        long stamp = stripe.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            User value = stripe.table.find(id, hash >>> STRIPE_BITS);
+            if (stripe.lock.validate(stamp)) {
+                return value;
+            }
+        }
+        // A writer was active on this stripe, retry under the read lock
+        stamp = stripe.lock.readLock();
+        try {
+            return stripe.table.find(id, hash >>> STRIPE_BITS);
+        } finally {
+            stripe.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Replace the value of an id under its stripe lock; the function gets the current value or null
+     * and returns the new one, null removing the entry. If it throws, the map is left unchanged
+     */
+    User compute(long id, UnaryOperator<User> remapping) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Ids must be positive: " + id);
+        }
+        long hash = mix(id);
+        Stripe stripe = stripes[(int) hash & (STRIPES - 1)];
+        long stamp = stripe.lock.writeLock();
+        try {
+            long slotHash = hash >>> STRIPE_BITS;
+            User current = stripe.table.find(id, slotHash);
+            User next = remapping.apply(current);
+            if (next == null) {
+                if (current != null) {
+                    stripe.table.remove(id, slotHash);
+                    stripe.size--;
+                }
+            } else if (current == null) {
+                if ((stripe.size + 1) * 4 > stripe.table.keys.length * 3) {
+                    stripe.table = stripe.table.resized(stripe.table.keys.length * 2);
+                }
+                stripe.table.put(id, slotHash, next);
+                stripe.size++;
+            } else if (next != current) {
+                stripe.table.put(id, slotHash, next);
+            }
+            return next;
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Visit every value; each stripe is read consistently, the map as a whole is not frozen
+     */
+    void forEach(Consumer<User> action) {
+        for (Stripe stripe : stripes) {
+            User[] values;
+            long stamp = stripe.lock.readLock();
+            try {
+                values = stripe.table.values.clone();
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+            for (User value : values) {
+                if (value != null) {
+                    action.accept(value);
+                }
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    // fmix64 finalizer from MurmurHash3, sequential ids spread over stripes and slots
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static final class Stripe {
+        private final StampedLock lock = new StampedLock();
+        private volatile Table table;
+        private int size;
+
+        private Stripe(int capacity) {
+            this.table = new Table(capacity);
+        }
+    }
+
+    /**
+     * Keys and values replaced together on resize, so an optimistic reader always sees a matching pair
+     */
+    private static final class Table {
+        private final long[] keys;
+        private final User[] values;
+        private final int mask;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new User[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private User find(long id, long slotHash) {
+            int slot = (int) slotHash & mask;
+            // Bounded probe: a racing optimistic read must terminate even on a torn table
+            for (int probes = 0; probes <= mask; probes++) {
+                long key = keys[slot];
+                if (key == id) {
+                    return values[slot];
+                }
+                if (key == 0) {
+                    return null;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private void put(long id, long slotHash, User value) {
+            int slot = (int) slotHash & mask;
+            while (keys[slot] != 0 && keys[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            values[slot] = value;
+            keys[slot] = id;
+        }
+
+        /**
+         * Backward-shift deletion keeps probe chains intact without tombstones
+         */
+        private void remove(long id, long slotHash) {
+            int slot = (int) slotHash & mask;
+            while (keys[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (keys[next] != 0) {
+                int home = (int) (mix(keys[next]) >>> STRIPE_BITS) & mask;
+                // Move the entry back if the hole lies between its home slot and its position
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[hole] = 0;
+            values[hole] = null;
+        }
+
+        private Table resized(int capacity) {
+            Table resized = new Table(capacity);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    resized.put(keys[i], mix(keys[i]) >>> STRIPE_BITS, values[i]);
+                }
+            }
+            return resized;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package org.technoready.dao.memory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.technoready.entity.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * User Log
+ * Append-only write-ahead log of user changes, one file per generation (users-<generation>.log)
+ * Each record is [int length][int crc32c][byte type][payload]; a PUT carries the full row,
+ * so replaying a record twice is harmless and snapshots never need to stop writers
+ * A torn or corrupt tail left by a crash is cut off on recovery
+ */
+@Slf4j
+final class UserLog implements AutoCloseable {
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final String PREFIX = "users-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final boolean syncEveryWrite;
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer buffer = ByteBuffer.allocate(512);
+    private FileChannel channel;
+    private long generation;
+    private long recordsSinceRotate;
+    private boolean dirty;
+
+    private UserLog(Path directory, long generation, boolean syncEveryWrite) throws IOException {
+        this.directory = directory;
+        this.syncEveryWrite = syncEveryWrite;
+        this.generation = generation;
+        this.channel = openChannel(directory, generation);
+    }
+
+    /**
+     * Open the log for appending at the given generation, creating the file if needed
+     */
+    static UserLog open(Path directory, long generation, boolean syncEveryWrite) {
+        try {
+            return new UserLog(directory, generation, syncEveryWrite);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open user log in " + directory, e);
+        }
+    }
+
+    synchronized void appendPut(User user) {
+        int payload = 1 + UserRecords.size(user);
+        ByteBuffer record = prepare(payload);
+        record.put(PUT);
+        UserRecords.write(record, user);
+        append(record, payload);
+    }
+
+    synchronized void appendDelete(long id) {
+        int payload = 1 + Long.BYTES;
+        ByteBuffer record = prepare(payload);
+        record.put(DELETE);
+        record.putLong(id);
+        append(record, payload);
+    }
+
+    /**
+     * Flush appended records to disk, called periodically when not syncing every write
+     */
+    synchronized void sync() {
+        if (!dirty || channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+            dirty = false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot sync user log", e);
+        }
+    }
+
+    /**
+     * Close the current file and continue in the next generation
+     * Returns the new generation; every record appended afterwards lands in it
+     */
+    synchronized long rotate() {
+        try {
+            channel.force(false);
+            channel.close();
+            generation++;
+            channel = openChannel(directory, generation);
+            recordsSinceRotate = 0;
+            dirty = false;
+            return generation;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot rotate user log", e);
+        }
+    }
+
+    synchronized long recordsSinceRotate() {
+        return recordsSinceRotate;
+    }
+
+    /**
+     * Delete the files of generations older than the given one, they are covered by a snapshot
+     */
+    static void deleteBefore(Path directory, long generation) {
+        for (long old : generations(directory)) {
+            if (old < generation) {
+                try {
+                    Files.deleteIfExists(file(directory, old));
+                } catch (IOException e) {
+                    log.warn("Cannot delete obsolete user log generation {}: {}", old, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Replay every log from the given generation on, in order
+     * Returns the last generation found, or the starting one when there is none
+     */
+    static long replay(Path directory, long fromGeneration, Consumer<User> onPut, LongConsumer onDelete) {
+        long last = fromGeneration;
+        for (long generation : generations(directory)) {
+            if (generation < fromGeneration) {
+                continue;
+            }
+            replayFile(file(directory, generation), onPut, onDelete);
+            last = generation;
+        }
+        return last;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+            channel.close();
+            channel = null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close user log", e);
+        }
+    }
+
+    private ByteBuffer prepare(int payload) {
+        int total = HEADER_BYTES + payload;
+        if (buffer.capacity() < total) {
+            buffer = ByteBuffer.allocate(Math.max(total, buffer.capacity() * 2));
+        }
+        buffer.clear();
+        buffer.position(HEADER_BYTES);
+        return buffer;
+    }
+
+    private void append(ByteBuffer record, int payload) {
+        crc.reset();
+        crc.update(record.array(), HEADER_BYTES, payload);
+        record.putInt(0, payload);
+        record.putInt(Integer.BYTES, (int) crc.getValue());
+        record.flip();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            if (syncEveryWrite) {
+                channel.force(false);
+            } else {
+                dirty = true;
+            }
+            recordsSinceRotate++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to user log", e);
+        }
+    }
+
+    private static void replayFile(Path file, Consumer<User> onPut, LongConsumer onDelete) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            long valid = 0;
+            int records = 0;
+            if (size > 0) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                CRC32C checksum = new CRC32C();
+                while (mapped.remaining() >= HEADER_BYTES) {
+                    int start = mapped.position();
+                    int payload = mapped.getInt();
+                    int expectedCrc = mapped.getInt();
+                    if (payload <= 0 || payload > mapped.remaining()) {
+                        break;
+                    }
+                    ByteBuffer record = mapped.slice(mapped.position(), payload);
+                    checksum.reset();
+                    checksum.update(record.duplicate());
+                    if ((int) checksum.getValue() != expectedCrc) {
+                        mapped.position(start);
+                        break;
+                    }
+                    byte type = record.get();
+                    if (type == PUT) {
+                        onPut.accept(UserRecords.read(record));
+                    } else if (type == DELETE) {
+                        onDelete.accept(record.getLong());
+                    } else {
+                        mapped.position(start);
+                        break;
+                    }
+                    mapped.position(start + HEADER_BYTES + payload);
+                    valid = mapped.position();
+                    records++;
+                }
+            }
+            if (valid < size) {
+                log.warn("Truncating {} bytes of incomplete records at the end of {}", size - valid, file);
+                channel.truncate(valid);
+            }
+            log.info("Replayed {} records from {}", records, file.getFileName());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replay user log " + file, e);
+        }
+    }
+
+    private static List<Long> generations(Path directory) {
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .forEach(name -> {
+                        try {
+                            generations.add(Long.parseLong(name, PREFIX.length(), name.length() - SUFFIX.length(), 16));
+                        } catch (NumberFormatException e) {
+                            log.warn("Ignoring unexpected file in user store: {}", name);
+                        }
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list user logs in " + directory, e);
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    private static Path file(Path directory, long generation) {
+        return directory.resolve(String.format("%s%016x%s", PREFIX, generation, SUFFIX));
+    }
+
+    private static FileChannel openChannel(Path directory, long generation) throws IOException {
+        return FileChannel.open(file(directory, generation),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
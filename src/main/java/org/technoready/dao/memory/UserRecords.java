@@ -0,0 +1,122 @@
+package org.technoready.dao.memory;
+
+import org.technoready.entity.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * User Records
+ * Binary layout of a user shared by the log and the snapshot:
+ * id, createdAt and updatedAt as epoch microseconds, then username, email and fullName
+ * each as an unsigned short length followed by UTF-8 bytes (-1 length for null)
+ */
+final class UserRecords {
+
+    private static final int NULL_LENGTH = 0xFFFF;
+    /** Longest encodable string, one below the null marker */
+    static final int MAX_STRING_BYTES = NULL_LENGTH - 1;
+
+    private UserRecords() {
+    }
+
+    /**
+     * Exact number of bytes {@link #write} produces for this user
+     */
+    static int size(User user) {
+        return 3 * Long.BYTES
+                + stringSize(user.getUsername())
+                + stringSize(user.getEmail())
+                + stringSize(user.getFullName());
+    }
+
+    static void write(ByteBuffer buffer, User user) {
+        buffer.putLong(user.getId());
+        buffer.putLong(toMicros(user.getCreatedAt()));
+        buffer.putLong(toMicros(user.getUpdatedAt()));
+        putString(buffer, user.getUsername());
+        putString(buffer, user.getEmail());
+        putString(buffer, user.getFullName());
+    }
+
+    static User read(ByteBuffer buffer) {
+        return User.builder()
+                .id(buffer.getLong())
+                .createdAt(fromMicros(buffer.getLong()))
+                .updatedAt(fromMicros(buffer.getLong()))
+                .username(getString(buffer))
+                .email(getString(buffer))
+                .fullName(getString(buffer))
+                .build();
+    }
+
+    static long toMicros(LocalDateTime value) {
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + value.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * UTF-8 length without encoding, so buffers can be sized before anything is written
+     */
+    static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    bytes += 1;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    // A surrogate pair is 2 chars and 4 bytes
+                    bytes += 2;
+                    i++;
+                } else {
+                    // Lone surrogates are replaced by '?' when encoding
+                    bytes += Character.isSurrogate(c) ? 0 : 2;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static int stringSize(String value) {
+        return Short.BYTES + (value == null ? 0 : utf8Length(value));
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Value too long to store: " + bytes.length + " bytes");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+}
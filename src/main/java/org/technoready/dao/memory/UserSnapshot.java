@@ -0,0 +1,121 @@
+package org.technoready.dao.memory;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.technoready.entity.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * User Snapshot
+ * Full copy of the store in one memory-mapped file (users.snapshot):
+ * header [magic][format][generation][sequence][count][crc32c] followed by the user records
+ * generation is the first log generation to replay on top of it
+ * Written to a temporary file and renamed, so a crash never leaves a half-written snapshot behind
+ */
+@Slf4j
+final class UserSnapshot {
+
+    private static final int MAGIC = 0x55535253;
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES + 2 * Long.BYTES + 2 * Integer.BYTES;
+    private static final int CRC_OFFSET = HEADER_BYTES - Integer.BYTES;
+    private static final String FILE_NAME = "users.snapshot";
+
+    private UserSnapshot() {
+    }
+
+    /**
+     * Loaded snapshot, empty at generation 0 when none exists yet
+     */
+    @Getter
+    @RequiredArgsConstructor
+    static final class Contents {
+        private final long generation;
+        private final long sequence;
+        private final List<User> users;
+    }
+
+    static void write(Path directory, long generation, long sequence, List<User> users) {
+        long size = HEADER_BYTES;
+        for (User user : users) {
+            size += UserRecords.size(user);
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Snapshot larger than 2 GB is not supported");
+        }
+
+        Path target = directory.resolve(FILE_NAME);
+        Path temporary = directory.resolve(FILE_NAME + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                mapped.putInt(MAGIC);
+                mapped.putInt(FORMAT);
+                mapped.putLong(generation);
+                mapped.putLong(sequence);
+                mapped.putInt(users.size());
+                mapped.position(HEADER_BYTES);
+                for (User user : users) {
+                    UserRecords.write(mapped, user);
+                }
+                mapped.putInt(CRC_OFFSET, checksum(mapped, (int) size));
+                mapped.force();
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write user snapshot in " + directory, e);
+        }
+    }
+
+    static Contents read(Path directory) {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return new Contents(0, 0, new ArrayList<>());
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Corrupt user snapshot " + file + ": unexpected size " + size);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (mapped.getInt() != MAGIC || mapped.getInt() != FORMAT) {
+                throw new IllegalStateException("Not a user snapshot: " + file);
+            }
+            long generation = mapped.getLong();
+            long sequence = mapped.getLong();
+            int count = mapped.getInt();
+            if (mapped.getInt(CRC_OFFSET) != checksum(mapped, (int) size)) {
+                throw new IllegalStateException("Corrupt user snapshot " + file + ": checksum mismatch");
+            }
+            mapped.position(HEADER_BYTES);
+            List<User> users = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                users.add(UserRecords.read(mapped));
+            }
+            log.info("Loaded {} users from snapshot at generation {}", count, generation);
+            return new Contents(generation, sequence, users);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read user snapshot " + file, e);
+        }
+    }
+
+    private static int checksum(ByteBuffer mapped, int size) {
+        CRC32C crc = new CRC32C();
+        crc.update(mapped.slice(HEADER_BYTES, size - HEADER_BYTES));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,22 @@
+package org.technoready.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page of results
+ * Holds one keyset page of items plus the opaque cursor of the next page
+ * A null nextCursor means the last page has been reached
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Page<T> {
+    private List<T> items;
+    private String nextCursor;
+}
@@ -0,0 +1,56 @@
+package org.technoready.dto;
+
+import lombok.Getter;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * User Field
+ * Whitelist of the fields a client may select with ?fields=, each tied to its JSON name and column
+ */
+@Getter
+public enum UserField {
+    ID("id", "id"),
+    USERNAME("username", "username"),
+    EMAIL("email", "email"),
+    FULL_NAME("fullName", "full_name"),
+    CREATED_AT("createdAt", "created_at"),
+    UPDATED_AT("updatedAt", "updated_at");
+
+    private final String jsonName;
+    private final String column;
+
+    UserField(String jsonName, String column) {
+        this.jsonName = jsonName;
+        this.column = column;
+    }
+
+    /**
+     * Parse a comma separated list of JSON field names, either spelling of fullName is accepted
+     * Throws IllegalArgumentException on unknown or missing names
+     */
+    public static Set<UserField> parseList(String fields) {
+        Set<UserField> selected = EnumSet.noneOf(UserField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (!trimmed.isEmpty()) {
+                selected.add(byName(trimmed));
+            }
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one field");
+        }
+        return selected;
+    }
+
+    private static UserField byName(String name) {
+        for (UserField field : values()) {
+            if (field.jsonName.equals(name) || field.column.equals(name.toLowerCase(Locale.ROOT))) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field: " + name);
+    }
+}
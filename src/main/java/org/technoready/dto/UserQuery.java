@@ -0,0 +1,113 @@
+package org.technoready.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.technoready.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * User Query
+ * One GET /users request: sparse fieldset, whitelisted filters, sort and keyset position
+ * Only the combinations an index can serve are accepted, see {@link #validate()}
+ */
+@Getter
+@Builder
+public class UserQuery {
+
+    // Null selects every field
+    private final Set<UserField> fields;
+    // Exclusive bounds on created_at
+    private final LocalDateTime createdAfter;
+    private final LocalDateTime createdBefore;
+    // Lower case, compared with the part of the email after the '@'
+    private final String emailDomain;
+    // Exact match
+    private final String username;
+    @Builder.Default
+    private final UserSort sort = UserSort.CREATED_AT;
+    private final String cursor;
+    private final int limit;
+
+    public boolean hasFilters() {
+        return createdAfter != null || createdBefore != null || emailDomain != null || username != null;
+    }
+
+    /**
+     * True when the query is the plain keyset listing served by {@code UserService.getUsersPage}
+     */
+    public boolean isDefault() {
+        return fields == null && !hasFilters() && sort == UserSort.CREATED_AT;
+    }
+
+    /**
+     * Full-scan guard
+     * username is unique; created_at bounds are served by idx_users_created_at and the email domain by
+     * idx_users_email_domain (domain, created_at, id). Those indexes deliver rows in created_at order only,
+     * so combining them with an id sort would mean reading every match before the first row is returned
+     * Throws IllegalArgumentException for rejected queries
+     */
+    public void validate() {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be greater than zero");
+        }
+        if (createdAfter != null && createdBefore != null && !createdAfter.isBefore(createdBefore)) {
+            throw new IllegalArgumentException("created_after must be before created_before");
+        }
+        if (emailDomain != null && !isDomain(emailDomain)) {
+            throw new IllegalArgumentException("Invalid email_domain: " + emailDomain);
+        }
+        if (username == null && !sort.isByCreatedAt()
+                && (createdAfter != null || createdBefore != null || emailDomain != null)) {
+            throw new IllegalArgumentException("created_after, created_before and email_domain require "
+                    + "sort=created_at or sort=-created_at");
+        }
+    }
+
+    /**
+     * Whether a user passes the filters, for stores that cannot push them into SQL
+     */
+    public boolean matches(User user) {
+        if (username != null && !username.equals(user.getUsername())) {
+            return false;
+        }
+        if (createdAfter != null && !user.getCreatedAt().isAfter(createdAfter)) {
+            return false;
+        }
+        if (createdBefore != null && !user.getCreatedAt().isBefore(createdBefore)) {
+            return false;
+        }
+        return emailDomain == null || emailDomain.equals(domainOf(user.getEmail()));
+    }
+
+    /**
+     * Everything that shapes the response, fed to the list ETag
+     */
+    public String cacheKey() {
+        return limit + "|" + cursor + "|" + sort.getParam() + "|" + fields + "|" + createdAfter + "|"
+                + createdBefore + "|" + emailDomain + "|" + username;
+    }
+
+    /**
+     * Lower-cased part after the first '@', matching lower(split_part(email, '@', 2)) in SQL
+     */
+    public static String domainOf(String email) {
+        int at = email.indexOf('@');
+        return at < 0 ? "" : email.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isDomain(String domain) {
+        if (domain.isEmpty() || domain.length() > 100) {
+            return false;
+        }
+        for (int i = 0; i < domain.length(); i++) {
+            char c = domain.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '.' || c == '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+package org.technoready.dto;
+
+import lombok.Getter;
+
+/**
+ * User Sort
+ * Whitelist of the orders accepted by ?sort=, a leading '-' sorts descending
+ * Every order ends on the id so keyset cursors stay unambiguous
+ */
+@Getter
+public enum UserSort {
+    CREATED_AT("created_at", "created_at, id", false),
+    CREATED_AT_DESC("-created_at", "created_at DESC, id DESC", true),
+    ID("id", "id", false),
+    ID_DESC("-id", "id DESC", true);
+
+    private final String param;
+    private final String orderBy;
+    private final boolean descending;
+
+    UserSort(String param, String orderBy, boolean descending) {
+        this.param = param;
+        this.orderBy = orderBy;
+        this.descending = descending;
+    }
+
+    public boolean isByCreatedAt() {
+        return this == CREATED_AT || this == CREATED_AT_DESC;
+    }
+
+    /**
+     * Throws IllegalArgumentException on anything outside the whitelist
+     */
+    public static UserSort parse(String sort) {
+        String trimmed = sort.trim();
+        for (UserSort candidate : values()) {
+            if (candidate.param.equals(trimmed)) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort: " + sort
+                + " (expected created_at, -created_at, id or -id)");
+    }
+}
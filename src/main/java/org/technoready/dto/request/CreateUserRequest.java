@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.technoready.util.UserValidator;
 
 /**
  * Create User Request DTO
@@ -19,24 +20,10 @@ public class CreateUserRequest {
     private String email;
     private String fullName;
 
+    /**
+     * Throws a ValidationException listing every invalid field
+     */
     public void validate() {
-        if (username == null || username.trim().isEmpty()) {
-            throw new IllegalArgumentException("Username is required");
-        }
-        if (username.length() < 3 || username.length() > 50) {
-            throw new IllegalArgumentException("Username must be between 3 and 50 characters");
-        }
-        if (email == null || email.trim().isEmpty()) {
-            throw new IllegalArgumentException("Email is required");
-        }
-        if (!email.matches("^[A-Za-z0-9+_.-]+@(.+)$")) {
-            throw new IllegalArgumentException("Invalid email format");
-        }
-        if (fullName == null || fullName.trim().isEmpty()) {
-            throw new IllegalArgumentException("Full name is required");
-        }
-        if (fullName.length() > 100) {
-            throw new IllegalArgumentException("Full name must not exceed 100 characters");
-        }
+        UserValidator.validate(this);
     }
 }
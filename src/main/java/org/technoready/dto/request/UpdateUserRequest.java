@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.technoready.util.UserValidator;
 
 /**
  * Update User Request DTO
@@ -17,14 +18,10 @@ public class UpdateUserRequest {
     private String email;
     private String fullName;
 
+    /**
+     * Throws a ValidationException listing every invalid field
+     */
     public void validate() {
-        if (email != null && !email.trim().isEmpty()) {
-            if (!email.matches("^[A-Za-z0-9+_.-]+@(.+)$")) {
-                throw new IllegalArgumentException("Invalid email format");
-            }
-        }
-        if (fullName != null && fullName.length() > 100) {
-            throw new IllegalArgumentException("Full name must not exceed 100 characters");
-        }
+        UserValidator.validate(this);
     }
 }
@@ -17,6 +17,7 @@ public class ApiResponse<T> {
     private boolean success;
     private String message;
     private T data;
+    private String next;
 
     public static <T> ApiResponse<T> success(T data) {
         return ApiResponse.<T>builder()
@@ -33,6 +34,14 @@ public class ApiResponse<T> {
                 .build();
     }
 
+    public static <T> ApiResponse<T> page(T data, String next) {
+        return ApiResponse.<T>builder()
+                .success(true)
+                .data(data)
+                .next(next)
+                .build();
+    }
+
     public static <T> ApiResponse<T> error(String message) {
         return ApiResponse.<T>builder()
                 .success(false)
@@ -0,0 +1,41 @@
+package org.technoready.dto.response;
+
+import com.google.gson.annotations.SerializedName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Batch Item Result DTO
+ * Outcome of one element of a bulk user creation, matched by its position in the request array
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult {
+    private int index;
+    private String username;
+    private Status status;
+    private Long id;
+    private String error;
+
+    public enum Status {
+        @SerializedName("created") CREATED,
+        @SerializedName("conflict") CONFLICT,
+        @SerializedName("invalid") INVALID
+    }
+
+    public static BatchItemResult created(int index, String username, long id) {
+        return new BatchItemResult(index, username, Status.CREATED, id, null);
+    }
+
+    public static BatchItemResult conflict(int index, String username, String error) {
+        return new BatchItemResult(index, username, Status.CONFLICT, null, error);
+    }
+
+    public static BatchItemResult invalid(int index, String username, String error) {
+        return new BatchItemResult(index, username, Status.INVALID, null, error);
+    }
+}
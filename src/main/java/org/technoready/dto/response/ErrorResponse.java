@@ -5,9 +5,12 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * Error Response DTO
  * Standardized error response structure
+ * errors lists every rejected field when a request fails validation
  */
 @Data
 @Builder
@@ -17,5 +20,5 @@ public class ErrorResponse {
     private String error;
     private String message;
     private int status;
+    private List<FieldError> errors;
 }
-
@@ -0,0 +1,17 @@
+package org.technoready.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Field Error DTO
+ * One rejected field of a request: which field, a stable machine-readable code and a readable message
+ * Immutable, so the validator can share one instance per rule
+ */
+@Getter
+@AllArgsConstructor
+public class FieldError {
+    private final String field;
+    private final String code;
+    private final String message;
+}
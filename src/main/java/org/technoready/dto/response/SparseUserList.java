@@ -0,0 +1,19 @@
+package org.technoready.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.technoready.dto.UserField;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sparse User List DTO
+ * Users serialized with only the fields selected by ?fields=, in declaration order
+ */
+@Getter
+@AllArgsConstructor
+public class SparseUserList {
+    private final List<UserResponse> users;
+    private final Set<UserField> fields;
+}
@@ -0,0 +1,21 @@
+package org.technoready.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * User Change DTO
+ * One committed write to a user, as pushed on GET /users/changes
+ * user holds the state after the write and is null for deletions
+ */
+@Getter
+@AllArgsConstructor
+public class UserChange {
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+
+    private final String type;
+    private final long id;
+    private final UserResponse user;
+}
@@ -0,0 +1,16 @@
+package org.technoready.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * User Suggestion DTO
+ * Lightweight search hit for typeahead, served from the in-memory search index
+ */
+@Getter
+@AllArgsConstructor
+public class UserSuggestion {
+    private final long id;
+    private final String username;
+    private final String fullName;
+}
@@ -0,0 +1,15 @@
+package org.technoready.exception;
+
+/**
+ * Precondition Failed Exception
+ * Thrown by conditional writes when the stored version no longer matches the client's If-Match
+ * Mapped to 412 by the controller
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PreconditionFailedException(Long id) {
+        super("User with id " + id + " was modified since it was last read");
+    }
+}
@@ -0,0 +1,15 @@
+package org.technoready.exception;
+
+/**
+ * User Not Found Exception
+ * Thrown by write operations targeting a user id that does not exist
+ * Mapped to 404 by the controller
+ */
+public class UserNotFoundException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UserNotFoundException(Long id) {
+        super("User not found with id: " + id);
+    }
+}
@@ -0,0 +1,43 @@
+package org.technoready.exception;
+
+import org.technoready.dto.response.FieldError;
+
+import java.util.List;
+
+/**
+ * Validation Exception
+ * Thrown when a request has one or more invalid fields, carries all of them
+ * Still an IllegalArgumentException, so existing 400 handling keeps working
+ * Rejections are routine traffic, so no stack trace is captured
+ */
+public class ValidationException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient List<FieldError> errors;
+
+    public ValidationException(List<FieldError> errors) {
+        super(joinMessages(errors));
+        this.errors = errors;
+    }
+
+    public List<FieldError> getErrors() {
+        return errors;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+    private static String joinMessages(List<FieldError> errors) {
+        StringBuilder message = new StringBuilder();
+        for (FieldError error : errors) {
+            if (message.length() > 0) {
+                message.append("; ");
+            }
+            message.append(error.getMessage());
+        }
+        return message.toString();
+    }
+}
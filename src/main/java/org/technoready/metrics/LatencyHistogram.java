@@ -0,0 +1,89 @@
+package org.technoready.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency Histogram
+ * Lock-free log-linear histogram in the HDR style: every power of two is split into
+ * eight linear sub-buckets, so any recorded value is known within 12.5%
+ * Recording is two atomic increments and an add, with no allocation
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // 2^40 ns is about 18 minutes, anything slower lands in the last bucket
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    /** Upper bounds in seconds exported as Prometheus "le" buckets */
+    static final double[] EXPORT_BOUNDS = {
+            0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    public void recordNanos(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(indexOf(nanos));
+        totalCount.increment();
+        totalNanos.add(nanos);
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public double getSumSeconds() {
+        return totalNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * Cumulative counts for {@link #EXPORT_BOUNDS}; a bucket is counted once its upper edge fits under the bound
+     */
+    long[] cumulativeCounts() {
+        long[] cumulative = new long[EXPORT_BOUNDS.length];
+        int bound = 0;
+        long running = 0;
+        for (int i = 0; i < BUCKETS && bound < EXPORT_BOUNDS.length; i++) {
+            long upperNanos = upperBoundNanos(i);
+            while (bound < EXPORT_BOUNDS.length && upperNanos > EXPORT_BOUNDS[bound] * 1e9) {
+                cumulative[bound++] = running;
+            }
+            running += counts.get(i);
+        }
+        while (bound < EXPORT_BOUNDS.length) {
+            cumulative[bound++] = running;
+        }
+        return cumulative;
+    }
+
+    static int indexOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Exclusive upper edge of a bucket in nanoseconds
+     */
+    static long upperBoundNanos(int index) {
+        if (index < SUB_BUCKETS) {
+            return index + 1;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS);
+    }
+}
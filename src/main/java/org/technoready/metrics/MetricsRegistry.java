@@ -0,0 +1,218 @@
+package org.technoready.metrics;
+
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import org.jdbi.v3.core.statement.SqlLogger;
+import org.technoready.web.AccessLog;
+import spark.Route;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Metrics Registry
+ * Single instrumentation surface of the application, scraped as Prometheus text:
+ * - request latency per route, method and status ({@link #timed})
+ * - query latency per DAO method ({@link #queryLogger})
+ * - HikariCP pool gauges and connection wait times ({@link #poolTracker})
+ * - JVM memory, GC, threads and process stats
+ * - application gauges and counters registered by the composition root
+ */
+public class MetricsRegistry {
+
+    private final List<RouteMetrics> routes = new CopyOnWriteArrayList<>();
+    private final QueryTimingLogger queryLogger = new QueryTimingLogger();
+    private final PoolMetricsTracker poolTracker = new PoolMetricsTracker();
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    public String getContentType() {
+        return PrometheusWriter.CONTENT_TYPE;
+    }
+
+    /**
+     * Wrap a route so its latency is recorded under the given method and route pattern
+     * The pattern is also left on the request for the access log
+     * Thrown exceptions are recorded as 500, the status the exception handler answers with
+     */
+    public Route timed(String method, String route, Route handler) {
+        RouteMetrics metrics = new RouteMetrics(method, route);
+        routes.add(metrics);
+        return (request, response) -> {
+            long start = System.nanoTime();
+            request.raw().setAttribute(AccessLog.ROUTE_ATTRIBUTE, route);
+            int status = 500;
+            try {
+                Object result = handler.handle(request, response);
+                status = response.raw().getStatus();
+                return result;
+            } finally {
+                metrics.record(status, System.nanoTime() - start);
+            }
+        };
+    }
+
+    public SqlLogger queryLogger() {
+        return queryLogger;
+    }
+
+    public MetricsTrackerFactory poolTracker() {
+        return poolTracker;
+    }
+
+    /**
+     * Register an application gauge; labels are alternating names and values
+     */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        register(name, "gauge", help, value, labels);
+    }
+
+    /**
+     * Register an application counter; the supplier must never decrease
+     */
+    public void counter(String name, String help, DoubleSupplier value, String... labels) {
+        register(name, "counter", help, value, labels);
+    }
+
+    public String scrape() {
+        PrometheusWriter writer = new PrometheusWriter();
+        writeRequests(writer);
+        writeQueries(writer);
+        writePools(writer);
+        writeJvm(writer);
+        synchronized (families) {
+            for (Map.Entry<String, Family> entry : families.entrySet()) {
+                Family family = entry.getValue();
+                writer.header(entry.getKey(), family.type, family.help);
+                for (Sample sample : family.samples) {
+                    writer.sample(entry.getKey(), sample.value.getAsDouble(), sample.labels);
+                }
+            }
+        }
+        return writer.toString();
+    }
+
+    private void register(String name, String type, String help, DoubleSupplier value, String[] labels) {
+        synchronized (families) {
+            families.computeIfAbsent(name, key -> new Family(type, help))
+                    .samples.add(new Sample(labels, value));
+        }
+    }
+
+    private void writeRequests(PrometheusWriter writer) {
+        writer.header("http_server_requests_seconds", "histogram", "Request handling time by route, method and status");
+        for (RouteMetrics route : routes) {
+            route.forEachStatus((status, histogram) -> writer.histogram("http_server_requests_seconds", histogram,
+                    "method", route.getMethod(), "route", route.getRoute(), "status", status));
+        }
+    }
+
+    private void writeQueries(PrometheusWriter writer) {
+        writer.header("db_query_seconds", "histogram", "Statement execution time by DAO method");
+        queryLogger.forEach(series -> {
+            if (series.latency.getCount() > 0) {
+                writer.histogram("db_query_seconds", series.latency, "dao", series.dao, "method", series.method);
+            }
+        });
+        writer.header("db_query_errors_total", "counter", "Failed statements by DAO method");
+        queryLogger.forEach(series -> writer.sample("db_query_errors_total", series.errors.sum(),
+                "dao", series.dao, "method", series.method));
+    }
+
+    private void writePools(PrometheusWriter writer) {
+        List<PoolMetricsTracker.PoolMetrics> pools = new ArrayList<>();
+        poolTracker.forEach(pools::add);
+
+        writer.header("hikaricp_connections_active", "gauge", "Connections in use");
+        pools.forEach(p -> writer.sample("hikaricp_connections_active", p.stats.getActiveConnections(), "pool", p.pool));
+        writer.header("hikaricp_connections_idle", "gauge", "Idle connections");
+        pools.forEach(p -> writer.sample("hikaricp_connections_idle", p.stats.getIdleConnections(), "pool", p.pool));
+        writer.header("hikaricp_connections_pending", "gauge", "Threads waiting for a connection");
+        pools.forEach(p -> writer.sample("hikaricp_connections_pending", p.stats.getPendingThreads(), "pool", p.pool));
+        writer.header("hikaricp_connections", "gauge", "Total connections");
+        pools.forEach(p -> writer.sample("hikaricp_connections", p.stats.getTotalConnections(), "pool", p.pool));
+        writer.header("hikaricp_connections_max", "gauge", "Maximum pool size");
+        pools.forEach(p -> writer.sample("hikaricp_connections_max", p.stats.getMaxConnections(), "pool", p.pool));
+        writer.header("hikaricp_connection_timeouts_total", "counter", "Connection requests that timed out");
+        pools.forEach(p -> writer.sample("hikaricp_connection_timeouts_total", p.timeouts.sum(), "pool", p.pool));
+        writer.header("hikaricp_connection_acquire_seconds", "histogram", "Time spent waiting for a connection");
+        pools.forEach(p -> writer.histogram("hikaricp_connection_acquire_seconds", p.acquire, "pool", p.pool));
+        writer.header("hikaricp_connection_usage_seconds", "histogram", "Time a connection was held before return");
+        pools.forEach(p -> writer.histogram("hikaricp_connection_usage_seconds", p.usage, "pool", p.pool));
+    }
+
+    private void writeJvm(PrometheusWriter writer) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        MemoryUsage heap = memory.getHeapMemoryUsage();
+        MemoryUsage nonHeap = memory.getNonHeapMemoryUsage();
+        writer.header("jvm_memory_used_bytes", "gauge", "Used memory by area")
+                .sample("jvm_memory_used_bytes", heap.getUsed(), "area", "heap")
+                .sample("jvm_memory_used_bytes", nonHeap.getUsed(), "area", "nonheap");
+        writer.header("jvm_memory_committed_bytes", "gauge", "Committed memory by area")
+                .sample("jvm_memory_committed_bytes", heap.getCommitted(), "area", "heap")
+                .sample("jvm_memory_committed_bytes", nonHeap.getCommitted(), "area", "nonheap");
+        writer.header("jvm_memory_max_bytes", "gauge", "Maximum memory by area, -1 when undefined")
+                .sample("jvm_memory_max_bytes", heap.getMax(), "area", "heap")
+                .sample("jvm_memory_max_bytes", nonHeap.getMax(), "area", "nonheap");
+
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        writer.header("jvm_gc_collection_seconds_count", "counter", "Collections by collector");
+        collectors.forEach(gc -> writer.sample("jvm_gc_collection_seconds_count", gc.getCollectionCount(),
+                "gc", gc.getName()));
+        writer.header("jvm_gc_collection_seconds_sum", "counter", "Time spent in collections by collector");
+        collectors.forEach(gc -> writer.sample("jvm_gc_collection_seconds_sum", gc.getCollectionTime() / 1000.0,
+                "gc", gc.getName()));
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        writer.header("jvm_threads_current", "gauge", "Live platform threads")
+                .sample("jvm_threads_current", threads.getThreadCount());
+        writer.header("jvm_threads_daemon", "gauge", "Live daemon threads")
+                .sample("jvm_threads_daemon", threads.getDaemonThreadCount());
+        writer.header("jvm_threads_peak", "gauge", "Peak live platform threads")
+                .sample("jvm_threads_peak", threads.getPeakThreadCount());
+
+        ClassLoadingMXBean classes = ManagementFactory.getClassLoadingMXBean();
+        writer.header("jvm_classes_loaded", "gauge", "Currently loaded classes")
+                .sample("jvm_classes_loaded", classes.getLoadedClassCount());
+
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean processOs) {
+            writer.header("process_cpu_seconds_total", "counter", "CPU time used by the process")
+                    .sample("process_cpu_seconds_total",
+                            processOs.getProcessCpuTime() / (double) TimeUnit.SECONDS.toNanos(1));
+        }
+        writer.header("process_uptime_seconds", "gauge", "Time since the JVM started")
+                .sample("process_uptime_seconds", ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0);
+    }
+
+    private static final class Family {
+        final String type;
+        final String help;
+        final List<Sample> samples = new ArrayList<>();
+
+        private Family(String type, String help) {
+            this.type = type;
+            this.help = help;
+        }
+    }
+
+    private static final class Sample {
+        final String[] labels;
+        final DoubleSupplier value;
+
+        private Sample(String[] labels, DoubleSupplier value) {
+            this.labels = labels;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.technoready.metrics;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Pool Metrics Tracker
+ * HikariCP metrics hook: connection wait and usage times plus the pool's own gauges,
+ * one entry per pool created with this factory
+ */
+class PoolMetricsTracker implements MetricsTrackerFactory {
+
+    private final List<PoolMetrics> pools = new CopyOnWriteArrayList<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        PoolMetrics metrics = new PoolMetrics(poolName, poolStats);
+        pools.add(metrics);
+        return metrics;
+    }
+
+    void forEach(Consumer<PoolMetrics> action) {
+        pools.forEach(action);
+    }
+
+    static final class PoolMetrics implements IMetricsTracker {
+        final String pool;
+        final PoolStats stats;
+        final LatencyHistogram acquire = new LatencyHistogram();
+        final LatencyHistogram usage = new LatencyHistogram();
+        final LongAdder timeouts = new LongAdder();
+
+        private PoolMetrics(String pool, PoolStats stats) {
+            this.pool = pool;
+            this.stats = stats;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquire.recordNanos(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usage.recordNanos(TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis));
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+    }
+}
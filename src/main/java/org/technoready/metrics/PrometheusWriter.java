@@ -0,0 +1,103 @@
+package org.technoready.metrics;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Prometheus Writer
+ * Minimal builder for the Prometheus text exposition format (version 0.0.4)
+ */
+class PrometheusWriter {
+
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final String[] BOUND_LABELS = Arrays.stream(LatencyHistogram.EXPORT_BOUNDS)
+            .mapToObj(bound -> BigDecimal.valueOf(bound).toPlainString())
+            .toArray(String[]::new);
+
+    private final StringBuilder out = new StringBuilder(16 * 1024);
+
+    PrometheusWriter header(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    /**
+     * One sample; labels are alternating names and values, values are escaped
+     */
+    PrometheusWriter sample(String name, double value, String... labels) {
+        out.append(name);
+        appendLabels(labels, null, null);
+        out.append(' ');
+        appendValue(value);
+        out.append('\n');
+        return this;
+    }
+
+    /**
+     * Buckets, sum and count of a histogram under the given base name
+     */
+    PrometheusWriter histogram(String name, LatencyHistogram histogram, String... labels) {
+        long[] cumulative = histogram.cumulativeCounts();
+        long count = histogram.getCount();
+        for (int i = 0; i < cumulative.length; i++) {
+            out.append(name).append("_bucket");
+            appendLabels(labels, "le", BOUND_LABELS[i]);
+            out.append(' ').append(cumulative[i]).append('\n');
+        }
+        out.append(name).append("_bucket");
+        appendLabels(labels, "le", "+Inf");
+        out.append(' ').append(count).append('\n');
+        sample(name + "_sum", histogram.getSumSeconds(), labels);
+        sample(name + "_count", count, labels);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private void appendLabels(String[] labels, String extraName, String extraValue) {
+        if (labels.length == 0 && extraName == null) {
+            return;
+        }
+        out.append('{');
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            if (i > 0) {
+                out.append(',');
+            }
+            appendLabel(labels[i], labels[i + 1]);
+        }
+        if (extraName != null) {
+            if (labels.length > 0) {
+                out.append(',');
+            }
+            appendLabel(extraName, extraValue);
+        }
+        out.append('}');
+    }
+
+    private void appendLabel(String name, String value) {
+        out.append(name).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '"' -> out.append("\\\"");
+                case '\n' -> out.append("\\n");
+                default -> out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    private void appendValue(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.technoready.metrics;
+
+import org.jdbi.v3.core.extension.ExtensionMethod;
+import org.jdbi.v3.core.statement.SqlLogger;
+import org.jdbi.v3.core.statement.StatementContext;
+
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Query Timing Logger
+ * JDBI SqlLogger recording execution time per DAO method; statements issued outside
+ * a SqlObject (schema script, ad-hoc handles) are grouped together
+ */
+class QueryTimingLogger implements SqlLogger {
+
+    private static final QuerySeries UNNAMED = new QuerySeries("none", "none");
+
+    private final Map<Method, QuerySeries> series = new ConcurrentHashMap<>();
+
+    @Override
+    public void logAfterExecution(StatementContext context) {
+        seriesOf(context).latency.recordNanos(context.getElapsedTime(ChronoUnit.NANOS));
+    }
+
+    @Override
+    public void logException(StatementContext context, SQLException ex) {
+        seriesOf(context).errors.increment();
+    }
+
+    void forEach(Consumer<QuerySeries> action) {
+        action.accept(UNNAMED);
+        series.values().forEach(action);
+    }
+
+    private QuerySeries seriesOf(StatementContext context) {
+        ExtensionMethod extensionMethod = context.getExtensionMethod();
+        if (extensionMethod == null) {
+            return UNNAMED;
+        }
+        Method method = extensionMethod.getMethod();
+        QuerySeries existing = series.get(method);
+        if (existing != null) {
+            return existing;
+        }
+        QuerySeries created = new QuerySeries(extensionMethod.getType().getSimpleName(), method.getName());
+        existing = series.putIfAbsent(method, created);
+        return existing != null ? existing : created;
+    }
+
+    static final class QuerySeries {
+        final String dao;
+        final String method;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+
+        private QuerySeries(String dao, String method) {
+            this.dao = dao;
+            this.method = method;
+        }
+    }
+}
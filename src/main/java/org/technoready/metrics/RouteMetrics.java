@@ -0,0 +1,50 @@
+package org.technoready.metrics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+
+/**
+ * Route Metrics
+ * Latency histograms of one route and method, one per response status
+ * Histograms are created on the first response with a status, later requests only record
+ */
+class RouteMetrics {
+
+    private static final int MAX_STATUS = 600;
+
+    private final String method;
+    private final String route;
+    private final AtomicReferenceArray<LatencyHistogram> byStatus = new AtomicReferenceArray<>(MAX_STATUS);
+
+    RouteMetrics(String method, String route) {
+        this.method = method;
+        this.route = route;
+    }
+
+    void record(int status, long nanos) {
+        int slot = status > 0 && status < MAX_STATUS ? status : 0;
+        LatencyHistogram histogram = byStatus.get(slot);
+        if (histogram == null) {
+            byStatus.compareAndSet(slot, null, new LatencyHistogram());
+            histogram = byStatus.get(slot);
+        }
+        histogram.recordNanos(nanos);
+    }
+
+    void forEachStatus(BiConsumer<String, LatencyHistogram> action) {
+        for (int status = 0; status < MAX_STATUS; status++) {
+            LatencyHistogram histogram = byStatus.get(status);
+            if (histogram != null) {
+                action.accept(status == 0 ? "unknown" : Integer.toString(status), histogram);
+            }
+        }
+    }
+
+    String getMethod() {
+        return method;
+    }
+
+    String getRoute() {
+        return route;
+    }
+}
@@ -1,12 +1,40 @@
 package org.technoready.routes;
 
 import com.google.gson.Gson;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.core.Jdbi;
+import org.technoready.config.EnvConfig;
 import org.technoready.config.GsonConfig;
+import org.technoready.controller.MetricsController;
+import org.technoready.controller.UserChangesController;
 import org.technoready.controller.UserController;
+import org.technoready.dao.memory.InMemoryUserStore;
+import org.technoready.metrics.MetricsRegistry;
+import org.technoready.dto.response.ApiResponse;
+import org.technoready.dto.response.UserChange;
 import org.technoready.service.UserService;
+import org.technoready.service.impl.CachingUserService;
+import org.technoready.service.impl.GroupCommitUserWriter;
+import org.technoready.service.impl.InMemoryUserService;
+import org.technoready.service.impl.ReplicaRouter;
+import org.technoready.service.impl.UserChangeListener;
+import org.technoready.service.impl.UserMembershipFilter;
+import org.technoready.service.impl.UserSearchIndex;
 import org.technoready.service.impl.UserServiceImpl;
+import org.technoready.web.AccessLog;
+import org.technoready.web.AdaptiveConcurrencyLimiter;
+import org.technoready.web.ClientIdentity;
+import org.technoready.web.ConcurrencyLimitFilter;
+import org.technoready.web.RateLimitFilter;
+import org.technoready.web.RateLimiter;
+import org.technoready.web.ResponseEncoder;
+import org.technoready.web.UserChangeStream;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static spark.Spark.*;
 
@@ -20,12 +48,91 @@ import static spark.Spark.*;
 public class UserRoutes {
 
     private final UserController userController;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final ResponseEncoder responseEncoder;
+    private final AccessLog accessLog;
+    private final ReplicaRouter replicaRouter;
+    private final MetricsRegistry metrics;
+    private final MetricsController metricsController;
+    private final UserChangesController userChangesController;
+    private final Gson gson;
 
-    public UserRoutes(Jdbi jdbi) {
+    public UserRoutes(Jdbi jdbi, Jdbi replicaJdbi, HikariPoolMXBean pool, EnvConfig config,
+                      MetricsRegistry metrics) {
         // Dependency injection - compose dependencies here
-        UserService userService = new UserServiceImpl(jdbi);
-        Gson gson = GsonConfig.getGson();
-        this.userController = new UserController(userService, gson);
+        this.metrics = metrics;
+        this.metricsController = new MetricsController(metrics);
+        this.replicaRouter = replicaJdbi != null
+                ? new ReplicaRouter(jdbi, replicaJdbi, config.getDbReadYourWritesMillis(),
+                        config.getDbReplicaRetryMillis())
+                : ReplicaRouter.primaryOnly(jdbi);
+        this.gson = GsonConfig.getGson();
+        UserChangeStream changeStream = config.isUserChangesEnabled()
+                ? createChangeStream(config, metrics)
+                : null;
+        UserService userService = config.isInMemoryUserStore()
+                ? createInMemoryUserService(config, metrics, changeStream)
+                : createDatabaseUserService(jdbi, config, metrics);
+        if (changeStream != null && !config.isInMemoryUserStore()) {
+            UserChangeListener changeListener = new UserChangeListener(config.getDbUrl(), config.getDbUsername(),
+                    config.getDbPassword(), gson, changeStream::publish, changeStream::reset);
+            Runtime.getRuntime().addShutdownHook(new Thread(changeListener::close, "user-change-listener-shutdown"));
+        }
+        this.userChangesController = new UserChangesController(changeStream, gson);
+        this.responseEncoder = new ResponseEncoder(GsonConfig.getPrettyGson(),
+                config.isResponseCompressionEnabled(), config.getResponseCompressionMinBytes());
+        this.userController = new UserController(userService, gson, responseEncoder,
+                config.getHttpCacheControl());
+        this.accessLog = config.isAccessLogEnabled()
+                ? new AccessLog(config.getAccessLogBufferSize(), config.getAccessLogSampleRate())
+                : null;
+        if (accessLog != null) {
+            // Flush queued lines on shutdown
+            Runtime.getRuntime().addShutdownHook(new Thread(accessLog::close, "access-log-shutdown"));
+            metrics.counter("access_log_written_total", "Access log lines written", accessLog::getWritten);
+            metrics.counter("access_log_sampled_out_total", "Successful requests skipped by sampling",
+                    accessLog::getSampledOut);
+            metrics.counter("access_log_dropped_total", "Access log lines dropped on a full buffer",
+                    accessLog::getDropped);
+        }
+        this.rateLimitFilter = config.isRateLimitEnabled()
+                ? new RateLimitFilter(
+                        new RateLimiter("read", config.getRateLimitReadPerSecond(),
+                                config.getRateLimitReadBurst(), config.getRateLimitMaxClients(),
+                                config.getRateLimitKeysPerIp()),
+                        new RateLimiter("write", config.getRateLimitWritePerSecond(),
+                                config.getRateLimitWriteBurst(), config.getRateLimitMaxClients(),
+                                config.getRateLimitKeysPerIp()),
+                        config.getRateLimitSweepMillis(), gson, accessLog)
+                : null;
+        if (rateLimitFilter != null) {
+            for (RateLimiter limiter : List.of(rateLimitFilter.getReadLimiter(), rateLimitFilter.getWriteLimiter())) {
+                metrics.gauge("rate_limit_clients", "Clients with a partially used rate limit bucket",
+                        limiter::getClientCount, "limiter", limiter.getName());
+                metrics.counter("rate_limit_rejected_total", "Requests rejected with 429",
+                        limiter::getLimited, "limiter", limiter.getName());
+            }
+        }
+        this.concurrencyLimitFilter = config.isConcurrencyLimitEnabled()
+                ? new ConcurrencyLimitFilter(
+                        new AdaptiveConcurrencyLimiter("read", config.getConcurrencyMinLimit(),
+                                config.getConcurrencyReadMaxLimit(), pool),
+                        new AdaptiveConcurrencyLimiter("write", config.getConcurrencyMinLimit(),
+                                config.getConcurrencyWriteMaxLimit(), pool),
+                        gson, accessLog)
+                : null;
+        if (concurrencyLimitFilter != null) {
+            for (AdaptiveConcurrencyLimiter limiter : List.of(concurrencyLimitFilter.getReadLimiter(),
+                    concurrencyLimitFilter.getWriteLimiter())) {
+                metrics.gauge("concurrency_limit", "Current adaptive concurrency limit",
+                        limiter::getLimit, "limiter", limiter.getName());
+                metrics.gauge("concurrency_in_flight", "Requests holding a concurrency slot",
+                        limiter::getInFlight, "limiter", limiter.getName());
+                metrics.counter("concurrency_rejected_total", "Requests shed with 503",
+                        limiter::getRejected, "limiter", limiter.getName());
+            }
+        }
     }
 
     /**
@@ -33,31 +140,171 @@ public class UserRoutes {
      */
     public void configure() {
         log.info("Configuring user routes...");
+        if (accessLog != null) {
+            before(accessLog::start);
+        }
         before((req, res) -> res.type("application/json"));
+
+        if (replicaRouter.hasReplica()) {
+            // Rebound on every request, so a thread never carries a previous client's identity
+            before((req, res) -> replicaRouter.bindClient(ClientIdentity.of(req)));
+        }
+
+        // Ahead of the concurrency limit, a limited client never takes a slot
+        if (rateLimitFilter != null) {
+            before("/users", rateLimitFilter::before);
+            before("/users/*", rateLimitFilter::before);
+        }
+
+        if (concurrencyLimitFilter != null) {
+            before("/users", concurrencyLimitFilter::before);
+            before("/users/*", concurrencyLimitFilter::before);
+            after("/users", concurrencyLimitFilter::after);
+            after("/users/*", concurrencyLimitFilter::after);
+        }
+
+        // After filters are skipped when a handler throws, release held slots here
+        exception(Exception.class, (exception, req, res) -> {
+            log.error("Unhandled error on {} {}", req.requestMethod(), req.pathInfo(), exception);
+            if (concurrencyLimitFilter != null) {
+                concurrencyLimitFilter.after(req, res);
+            }
+            res.status(500);
+            res.body(gson.toJson(ApiResponse.error("Internal server error")));
+            if (accessLog != null) {
+                accessLog.record(req, res);
+            }
+        });
         // Base path for all user routes
         path("/users", () -> {
 
             // GET /users - Retrieve all users
-            get("", userController::getAllUsers);
+            get("", metrics.timed("GET", "/users", userController::getAllUsers));
+
+            // GET /users/search - Typeahead search, must precede /:id
+            get("/search", metrics.timed("GET", "/users/search", userController::searchUsers));
+
+            // GET /users/changes - Server-Sent Events change stream, must precede /:id
+            get("/changes", metrics.timed("GET", "/users/changes", userChangesController::streamChanges));
 
             // GET /users/:id - Retrieve user by ID
-            get("/:id", userController::getUserById);
+            get("/:id", metrics.timed("GET", "/users/:id", userController::getUserById));
 
             // POST /users - Create new user
-            post("", userController::createUser);
+            post("", metrics.timed("POST", "/users", userController::createUser));
+
+            // POST /users/batch - Create many users at once
+            post("/batch", metrics.timed("POST", "/users/batch", userController::createUsersBatch));
+
             // PUT /users/:id - Update user
-            put("/:id", userController::updateUser);
+            put("/:id", metrics.timed("PUT", "/users/:id", userController::updateUser));
 
             // DELETE /users/:id - Delete user
-            delete("/:id", userController::deleteUser);
+            delete("/:id", metrics.timed("DELETE", "/users/:id", userController::deleteUser));
 
             // OPTIONS /users/:id - Check if user exists
-            options("/:id", userController::checkUserExists);
+            options("/:id", metrics.timed("OPTIONS", "/users/:id", userController::checkUserExists));
+        });
+
+        // GET /metrics - Prometheus scrape endpoint, outside the concurrency limits
+        get("/metrics", metrics.timed("GET", "/metrics", metricsController::getMetrics));
+
+        // JSON unless the handler chose another content type
+        after("/*", (request, response) -> {
+            String type = response.type();
+            if (type == null || type.startsWith("application/json")) {
+                response.type("application/json");
+            }
         });
 
-        after("/*", (request, response) -> response.type("application/json"));
+        // Must follow every filter that changes the body, it writes the final bytes to the socket
+        after(responseEncoder::after);
+
+        if (accessLog != null) {
+            after(accessLog::after);
+        }
 
         log.info("User routes configured successfully");
     }
 
+    /**
+     * Switch the rate limits off while the startup warmup replays requests from this node
+     */
+    public void setRateLimitsEnforced(boolean enforced) {
+        if (rateLimitFilter != null) {
+            rateLimitFilter.setEnforced(enforced);
+        }
+    }
+
+    private UserService createDatabaseUserService(Jdbi jdbi, EnvConfig config, MetricsRegistry metrics) {
+        // Both scan the whole users table; run them side by side on separate connections
+        CompletableFuture<UserMembershipFilter> membershipFilterBuild = config.isUserFilterEnabled()
+                ? CompletableFuture.supplyAsync(() ->
+                        UserMembershipFilter.build(jdbi, config.getUserFilterFalsePositiveRate()))
+                : CompletableFuture.completedFuture(UserMembershipFilter.disabled());
+        UserSearchIndex searchIndex = config.isUserSearchEnabled()
+                ? UserSearchIndex.build(jdbi)
+                : UserSearchIndex.disabled();
+        UserMembershipFilter membershipFilter = membershipFilterBuild.join();
+        GroupCommitUserWriter groupCommitWriter = config.isUserGroupCommitEnabled()
+                ? new GroupCommitUserWriter(jdbi, config.getUserGroupCommitWindowMillis(),
+                        config.getUserGroupCommitMaxBatch(), config.getUserGroupCommitMaxQueue(),
+                        config.getUserGroupCommitTimeoutMillis())
+                : null;
+        metrics.gauge("user_search_index_terms", "Terms in the user search index", searchIndex::getTermCount);
+        UserService userService = new UserServiceImpl(jdbi, membershipFilter,
+                config.getUserBatchChunkSize(), config.getUserBatchMaxSize(), groupCommitWriter,
+                replicaRouter, searchIndex);
+        if (config.isUserCacheEnabled()) {
+            CachingUserService cachingService = new CachingUserService(userService,
+                    config.getUserCacheMaxSize(), config.getUserCacheTtlMillis());
+            metrics.counter("user_cache_hits_total", "User cache hits", cachingService::getHits);
+            metrics.counter("user_cache_misses_total", "User cache misses", cachingService::getMisses);
+            metrics.counter("user_cache_evictions_total", "User cache evictions", cachingService::getEvictions);
+            metrics.gauge("user_cache_size", "Entries in the user cache", cachingService::getSize);
+            userService = cachingService;
+        }
+        metrics.counter("user_filter_skipped_lookups_total", "Lookups answered by the membership filter",
+                membershipFilter::getSkippedLookups);
+        return userService;
+    }
+
+    private UserChangeStream createChangeStream(EnvConfig config, MetricsRegistry metrics) {
+        UserChangeStream changeStream = new UserChangeStream(gson, config.getUserChangesHistorySize(),
+                config.getUserChangesBufferSize(), config.getUserChangesHeartbeatMillis());
+        Runtime.getRuntime().addShutdownHook(new Thread(changeStream::close, "user-changes-shutdown"));
+        metrics.gauge("user_changes_subscribers", "Connected change stream subscribers",
+                changeStream::getSubscriberCount);
+        metrics.counter("user_changes_published_total", "User changes published to the stream",
+                changeStream::getPublished);
+        metrics.counter("user_changes_slow_disconnects_total", "Subscribers disconnected for falling behind",
+                changeStream::getSlowDisconnects);
+        return changeStream;
+    }
+
+    /**
+     * Lookups are already in-process, so no cache or membership filter is stacked on top
+     * Writes are published to the change stream directly, there is no database to notify
+     */
+    private UserService createInMemoryUserService(EnvConfig config, MetricsRegistry metrics,
+                                                  UserChangeStream changeStream) {
+        String directory = config.getUserStoreDir();
+        InMemoryUserStore store = directory == null || directory.isBlank()
+                ? InMemoryUserStore.transientStore()
+                : InMemoryUserStore.open(Path.of(directory), config.getUserStoreSyncMillis(),
+                        config.getUserStoreSnapshotMillis());
+        // Final snapshot on shutdown, so the next start replays almost no log
+        Runtime.getRuntime().addShutdownHook(new Thread(store::close, "user-store-shutdown"));
+        metrics.gauge("user_store_users", "Users held by the in-memory store", store::count);
+        UserSearchIndex searchIndex = UserSearchIndex.disabled();
+        if (config.isUserSearchEnabled()) {
+            searchIndex = UserSearchIndex.empty();
+            store.forEachOrderedById(searchIndex::put);
+        }
+        metrics.gauge("user_search_index_terms", "Terms in the user search index", searchIndex::getTermCount);
+        log.info("Using in-memory user store in '{}'", directory);
+        Consumer<UserChange> changes = changeStream != null ? changeStream::publish : change -> { };
+        return new InMemoryUserService(store, config.getUserBatchMaxSize(), searchIndex, changes);
+    }
+
 }
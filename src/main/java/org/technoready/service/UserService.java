@@ -1,11 +1,17 @@
 package org.technoready.service;
 
+import org.technoready.dto.Page;
+import org.technoready.dto.UserQuery;
 import org.technoready.dto.request.CreateUserRequest;
 import org.technoready.dto.request.UpdateUserRequest;
+import org.technoready.dto.response.BatchItemResult;
+import org.technoready.dto.response.UserSuggestion;
 import org.technoready.entity.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * User Service Interface
@@ -17,12 +23,37 @@ public interface UserService {
 
     /**
      * Retrieve all users
+     * Unbounded - only for explicit opt-in callers, prefer {@link #getUsersPage}
      */
     List<User> getAllUsers();
+    /**
+     * Walk every user through a database cursor without materializing the table
+     * The consumer is invoked in id order while the cursor is open
+     */
+    void forEachUser(Consumer<User> consumer);
+    /**
+     * Retrieve one keyset page of users ordered by creation time
+     * A null cursor starts from the first page
+     */
+    Page<User> getUsersPage(String cursor, int limit);
+    /**
+     * Retrieve one keyset page of users matching a validated query
+     * Users only carry the selected fields plus id and createdAt when a fieldset is given
+     */
+    Page<User> findUsers(UserQuery query);
+    /**
+     * Typeahead search on username and full name prefixes, best matches first
+     * Throws IllegalStateException when search is disabled
+     */
+    List<UserSuggestion> searchUsers(String query, int limit);
     /**
      * Create a new user
      */
     User createUser(CreateUserRequest request);
+    /**
+     * Create many users in one transaction, reporting the outcome of each element
+     */
+    List<BatchItemResult> createUsers(List<CreateUserRequest> requests);
     /**
      * Retrieve an user by id
      */
@@ -31,6 +62,15 @@ public interface UserService {
      * Update an existing user
      */
     User updateUser(Long id, UpdateUserRequest request);
+    /**
+     * Update an existing user only while its updated_at is one of the expected versions
+     * Throws PreconditionFailedException when the user changed in the meantime
+     */
+    User updateUserIfUnmodified(Long id, UpdateUserRequest request, List<LocalDateTime> expectedVersions);
+    /**
+     * Current version of the users table, changes whenever any user is written
+     */
+    long getUsersVersion();
 
     /**
      * Delete a user
@@ -0,0 +1,155 @@
+package org.technoready.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.technoready.dto.Page;
+import org.technoready.dto.UserQuery;
+import org.technoready.dto.request.CreateUserRequest;
+import org.technoready.dto.request.UpdateUserRequest;
+import org.technoready.dto.response.BatchItemResult;
+import org.technoready.dto.response.UserSuggestion;
+import org.technoready.entity.User;
+import org.technoready.service.UserService;
+import org.technoready.util.LruCache;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Caching User Service
+ * Read-through cache decorator over any UserService (Open/Closed Principle)
+ * Single-user lookups are served from a bounded LRU cache with TTL, misses included,
+ * and every write path refreshes or invalidates the affected id
+ */
+@Slf4j
+public class CachingUserService implements UserService {
+
+    private final UserService delegate;
+    private final LruCache<Long, Optional<User>> cache;
+
+    public CachingUserService(UserService delegate, int maxSize, long ttlMillis) {
+        this.delegate = delegate;
+        this.cache = new LruCache<>(maxSize, ttlMillis);
+        log.info("User cache enabled with max size {} and ttl {} ms", maxSize, ttlMillis);
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return delegate.getAllUsers();
+    }
+
+    @Override
+    public void forEachUser(Consumer<User> consumer) {
+        delegate.forEachUser(consumer);
+    }
+
+    @Override
+    public Page<User> getUsersPage(String cursor, int limit) {
+        return delegate.getUsersPage(cursor, limit);
+    }
+
+    @Override
+    public Page<User> findUsers(UserQuery query) {
+        return delegate.findUsers(query);
+    }
+
+    @Override
+    public List<UserSuggestion> searchUsers(String query, int limit) {
+        return delegate.searchUsers(query, limit);
+    }
+
+    @Override
+    public User createUser(CreateUserRequest request) {
+        User user = delegate.createUser(request);
+        // Overwrites a cached "not found" for the freshly generated id
+        cache.put(user.getId(), Optional.of(copyOf(user)));
+        return user;
+    }
+
+    @Override
+    public List<BatchItemResult> createUsers(List<CreateUserRequest> requests) {
+        List<BatchItemResult> results = delegate.createUsers(requests);
+        for (BatchItemResult result : results) {
+            if (result.getId() != null) {
+                // Drop any cached "not found" for the freshly generated ids
+                cache.invalidate(result.getId());
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public Optional<User> getUserById(Long id) {
+        return cache.getOrLoad(id, delegate::getUserById).map(this::copyOf);
+    }
+
+    @Override
+    public User updateUser(Long id, UpdateUserRequest request) {
+        try {
+            User user = delegate.updateUser(id, request);
+            cache.put(id, Optional.of(copyOf(user)));
+            return user;
+        } catch (RuntimeException e) {
+            cache.invalidate(id);
+            throw e;
+        }
+    }
+
+    @Override
+    public User updateUserIfUnmodified(Long id, UpdateUserRequest request, List<LocalDateTime> expectedVersions) {
+        try {
+            User user = delegate.updateUserIfUnmodified(id, request, expectedVersions);
+            cache.put(id, Optional.of(copyOf(user)));
+            return user;
+        } catch (RuntimeException e) {
+            // A failed precondition means our copy may be the stale one
+            cache.invalidate(id);
+            throw e;
+        }
+    }
+
+    @Override
+    public long getUsersVersion() {
+        return delegate.getUsersVersion();
+    }
+
+    @Override
+    public boolean deleteUser(Long id) {
+        try {
+            return delegate.deleteUser(id);
+        } finally {
+            cache.invalidate(id);
+        }
+    }
+
+    @Override
+    public boolean userExists(Long id) {
+        // Loading the row costs the same primary key lookup as EXISTS and warms getUserById
+        return cache.getOrLoad(id, delegate::getUserById).isPresent();
+    }
+
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    public long getEvictions() {
+        return cache.getEvictions();
+    }
+
+    public int getSize() {
+        return cache.size();
+    }
+
+    /**
+     * Cached entities are never handed out directly, callers may mutate what they receive
+     */
+    private User copyOf(User user) {
+        return new User(user.getId(), user.getUsername(), user.getEmail(), user.getFullName(),
+                user.getCreatedAt(), user.getUpdatedAt());
+    }
+}
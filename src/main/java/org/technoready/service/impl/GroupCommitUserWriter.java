@@ -0,0 +1,184 @@
+package org.technoready.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import org.technoready.dao.UserDao;
+import org.technoready.entity.User;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Group Commit User Writer
+ * Coalesces concurrent single-user inserts into one batch insert and one commit
+ * Callers park until the batch holding their row is flushed, either when the window
+ * elapses or when maxBatchSize requests have arrived, and get back their own id or conflict
+ * - a batch that fails for another reason (e.g. a value the column rejects) is retried row by row,
+ *   so only the caller whose row is at fault gets the error
+ * - at most maxQueued requests wait; beyond that a caller inserts on its own instead of queueing
+ * - a caller waits at most timeoutMillis for the flusher to take its row; once taken into a batch
+ *   it waits for that batch's outcome, since the row may already be committed
+ */
+@Slf4j
+public class GroupCommitUserWriter {
+
+    private final Jdbi jdbi;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final long timeoutMillis;
+    private final BlockingQueue<PendingInsert> queue;
+    private final Thread flusher;
+
+    public GroupCommitUserWriter(Jdbi jdbi, long windowMillis, int maxBatchSize, int maxQueued, long timeoutMillis) {
+        if (maxBatchSize <= 0 || maxQueued <= 0) {
+            throw new IllegalArgumentException("Group commit batch size and queue must be greater than zero");
+        }
+        this.jdbi = jdbi;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutMillis = timeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(maxQueued);
+        this.flusher = new Thread(this::run, "user-group-commit");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+        log.info("Group commit enabled with window {} ms and max batch {}", windowMillis, maxBatchSize);
+    }
+
+    /**
+     * Queue the user for the next group commit and wait for its outcome
+     * Throws IllegalArgumentException when the username is already taken
+     */
+    public User insert(User user) {
+        PendingInsert pending = new PendingInsert(user);
+        if (!queue.offer(pending)) {
+            log.debug("Group commit queue full, inserting {} on its own", user.getUsername());
+            return insertOne(user);
+        }
+        try {
+            try {
+                return pending.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (pending.claimed.compareAndSet(false, true)) {
+                    // The flusher never took it, so it will never be written
+                    throw new IllegalStateException("Group commit timed out after " + timeoutMillis + " ms");
+                }
+                // Already in a batch transaction; only its outcome says whether the row exists
+                return pending.result.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for group commit", e);
+        }
+    }
+
+    private void run() {
+        List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                PendingInsert first = queue.take();
+                batch.add(first);
+
+                // Collect followers until the window closes or the batch is full
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingInsert next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingInsert> batch) {
+        // Only the first request per username reaches the database, later ones conflict
+        Map<String, PendingInsert> byUsername = new HashMap<>();
+        List<User> users = new ArrayList<>(batch.size());
+        for (PendingInsert pending : batch) {
+            if (!pending.claimed.compareAndSet(false, true)) {
+                // The caller timed out and withdrew
+                continue;
+            }
+            String username = pending.user.getUsername();
+            if (byUsername.putIfAbsent(username, pending) == null) {
+                users.add(pending.user);
+            } else {
+                pending.result.completeExceptionally(
+                        new IllegalArgumentException("Username already exists: " + username));
+            }
+        }
+
+        if (users.isEmpty()) {
+            return;
+        }
+        try {
+            List<User> inserted = jdbi.inTransaction(handle ->
+                    handle.attach(UserDao.class).insertBatch(users, users.size()));
+
+            for (User row : inserted) {
+                byUsername.remove(row.getUsername()).result.complete(row);
+            }
+            for (PendingInsert pending : byUsername.values()) {
+                pending.result.completeExceptionally(new IllegalArgumentException(
+                        "Username already exists: " + pending.user.getUsername()));
+            }
+            log.debug("Group commit flushed {} inserts", users.size());
+
+        } catch (RuntimeException e) {
+            // Nothing was committed; one transaction per row isolates the failing caller
+            log.warn("Group commit of {} inserts failed, retrying them one by one: {}", users.size(), e.getMessage());
+            for (PendingInsert pending : byUsername.values()) {
+                if (pending.result.isDone()) {
+                    continue;
+                }
+                try {
+                    pending.result.complete(insertOne(pending.user));
+                } catch (RuntimeException rowFailure) {
+                    pending.result.completeExceptionally(rowFailure);
+                }
+            }
+        }
+    }
+
+    private User insertOne(User user) {
+        return jdbi.withExtension(UserDao.class, dao -> dao.insertIfAbsent(user))
+                .orElseThrow(() -> new IllegalArgumentException("Username already exists: " + user.getUsername()));
+    }
+
+    private static final class PendingInsert {
+        private final User user;
+        private final CompletableFuture<User> result = new CompletableFuture<>();
+        // Set once by whoever owns it first: the flusher taking it into a batch, or the caller withdrawing
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private PendingInsert(User user) {
+            this.user = user;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package org.technoready.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.technoready.dao.memory.InMemoryUserStore;
+import org.technoready.dto.Page;
+import org.technoready.dto.UserQuery;
+import org.technoready.dto.UserSort;
+import org.technoready.dto.request.CreateUserRequest;
+import org.technoready.dto.request.UpdateUserRequest;
+import org.technoready.dto.response.BatchItemResult;
+import org.technoready.dto.response.UserChange;
+import org.technoready.dto.response.UserSuggestion;
+import org.technoready.entity.User;
+import org.technoready.exception.PreconditionFailedException;
+import org.technoready.exception.UserNotFoundException;
+import org.technoready.service.UserService;
+import org.technoready.util.UserCursor;
+import org.technoready.util.UserMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * In-Memory User Service
+ * Same contract as UserServiceImpl, backed by the InMemoryUserStore instead of PostgreSQL
+ * Reads never leave the process, so no cache, membership filter or replica sits in front of it
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class InMemoryUserService implements UserService {
+
+    private final InMemoryUserStore store;
+    private final int batchMaxSize;
+    /** Kept in step with every write below */
+    private final UserSearchIndex searchIndex;
+    /** Receives every committed write, the in-process counterpart of the users_change_notify trigger */
+    private final Consumer<UserChange> changes;
+
+    @Override
+    public List<User> getAllUsers() {
+        log.debug("Fetching all users");
+        return store.findAll();
+    }
+
+    @Override
+    public void forEachUser(Consumer<User> consumer) {
+        log.debug("Streaming all users");
+        store.forEachOrderedById(consumer);
+    }
+
+    @Override
+    public Page<User> getUsersPage(String cursor, int limit) {
+        log.debug("Fetching users page with limit: {}", limit);
+
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be greater than zero");
+        }
+
+        // Fetch one extra row to know whether another page follows
+        List<User> users;
+        if (cursor == null || cursor.isBlank()) {
+            users = store.findPage(null, 0, limit + 1);
+        } else {
+            UserCursor position = UserCursor.decode(cursor);
+            users = store.findPage(position.getCreatedAt(), position.getId(), limit + 1);
+        }
+
+        if (users.size() <= limit) {
+            return new Page<>(users, null);
+        }
+
+        List<User> items = users.subList(0, limit);
+        String nextCursor = UserCursor.after(items.get(limit - 1)).encode();
+        return new Page<>(items, nextCursor);
+    }
+
+    /**
+     * Same plans as the SQL store: username is a point lookup, created_at sorts walk the creation index
+     * between the created bounds, id sorts probe ids in sequence
+     * Rows always carry every field, the fieldset is applied when the response is written
+     */
+    @Override
+    public Page<User> findUsers(UserQuery query) {
+        log.debug("Fetching users page with query: {}", query.cacheKey());
+
+        query.validate();
+        int limit = query.getLimit();
+        UserSort sort = query.getSort();
+        UserCursor position = query.getCursor() == null || query.getCursor().isBlank()
+                ? null
+                : UserCursor.decode(query.getCursor());
+
+        List<User> users;
+        if (query.getUsername() != null) {
+            users = new ArrayList<>(1);
+            store.findByUsername(query.getUsername())
+                    .filter(query::matches)
+                    .filter(user -> position == null || isBeyond(user, position, sort))
+                    .ifPresent(users::add);
+        } else if (sort.isByCreatedAt()) {
+            users = store.findPage(query.getCreatedAfter(), query.getCreatedBefore(), sort.isDescending(),
+                    position == null ? null : position.getCreatedAt(), position == null ? 0 : position.getId(),
+                    query::matches, limit + 1);
+        } else {
+            long afterId = position != null ? position.getId() : sort.isDescending() ? Long.MAX_VALUE : 0;
+            users = store.findPageById(afterId, sort.isDescending(), limit + 1);
+        }
+
+        if (users.size() <= limit) {
+            return new Page<>(users, null);
+        }
+
+        List<User> items = users.subList(0, limit);
+        String nextCursor = UserCursor.after(items.get(limit - 1)).encode();
+        return new Page<>(items, nextCursor);
+    }
+
+    @Override
+    public List<UserSuggestion> searchUsers(String query, int limit) {
+        log.debug("Searching users with limit: {}", limit);
+        return searchIndex.search(query, limit);
+    }
+
+    @Override
+    public User createUser(CreateUserRequest request) {
+        log.debug("Creating new user with username: {}", request.getUsername());
+
+        request.validate();
+
+        // The username index decides, no lookup beforehand
+        User user = store.insertIfAbsent(UserMapper.toEntity(request))
+                .orElseThrow(() -> new IllegalArgumentException("Username already exists: " + request.getUsername()));
+        searchIndex.put(user);
+        publish(UserChange.CREATED, user);
+
+        log.debug("User created successfully with id: {}", user.getId());
+        return user;
+    }
+
+    @Override
+    public List<BatchItemResult> createUsers(List<CreateUserRequest> requests) {
+        log.debug("Creating {} users in batch", requests.size());
+
+        if (requests.size() > batchMaxSize) {
+            throw new IllegalArgumentException("Batch must not exceed " + batchMaxSize + " users");
+        }
+
+        // Each item is inserted on its own; the per-item results match the database backend
+        List<BatchItemResult> results = new ArrayList<>(requests.size());
+        Set<String> seen = new HashSet<>();
+        int created = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            CreateUserRequest request = requests.get(i);
+            if (request == null) {
+                results.add(BatchItemResult.invalid(i, null, "Item is required"));
+                continue;
+            }
+            try {
+                request.validate();
+            } catch (IllegalArgumentException e) {
+                results.add(BatchItemResult.invalid(i, request.getUsername(), e.getMessage()));
+                continue;
+            }
+            if (!seen.add(request.getUsername())) {
+                results.add(BatchItemResult.conflict(i, request.getUsername(),
+                        "Duplicate username in batch: " + request.getUsername()));
+                continue;
+            }
+            Optional<User> user = store.insertIfAbsent(UserMapper.toEntity(request));
+            if (user.isPresent()) {
+                searchIndex.put(user.get());
+                publish(UserChange.CREATED, user.get());
+                created++;
+                results.add(BatchItemResult.created(i, request.getUsername(), user.get().getId()));
+            } else {
+                results.add(BatchItemResult.conflict(i, request.getUsername(),
+                        "Username already exists: " + request.getUsername()));
+            }
+        }
+
+        log.debug("Batch created {} of {} users", created, requests.size());
+        return results;
+    }
+
+    @Override
+    public Optional<User> getUserById(Long id) {
+        log.debug("Fetching user with id: {}", id);
+        return store.findById(id);
+    }
+
+    @Override
+    public User updateUser(Long id, UpdateUserRequest request) {
+        log.debug("Updating user with id: {}", id);
+
+        request.validate();
+
+        User updatedUser = store.updatePartial(id,
+                        UserMapper.blankToNull(request.getEmail()),
+                        UserMapper.blankToNull(request.getFullName()),
+                        null)
+                .orElseThrow(() -> new UserNotFoundException(id));
+        searchIndex.put(updatedUser);
+        publish(UserChange.UPDATED, updatedUser);
+
+        log.debug("User updated successfully with id: {}", id);
+        return updatedUser;
+    }
+
+    @Override
+    public User updateUserIfUnmodified(Long id, UpdateUserRequest request, List<LocalDateTime> expectedVersions) {
+        log.debug("Conditionally updating user with id: {}", id);
+
+        request.validate();
+
+        // The version check and the write happen under the same row lock
+        User updatedUser = store.updatePartial(id,
+                        UserMapper.blankToNull(request.getEmail()),
+                        UserMapper.blankToNull(request.getFullName()),
+                        expectedVersions)
+                .orElseThrow(() -> store.exists(id)
+                        ? new PreconditionFailedException(id)
+                        : new UserNotFoundException(id));
+        searchIndex.put(updatedUser);
+        publish(UserChange.UPDATED, updatedUser);
+        return updatedUser;
+    }
+
+    @Override
+    public long getUsersVersion() {
+        return store.currentVersion();
+    }
+
+    @Override
+    public boolean deleteUser(Long id) {
+        log.debug("Deleting user with id: {}", id);
+
+        if (store.delete(id)) {
+            searchIndex.remove(id);
+            changes.accept(new UserChange(UserChange.DELETED, id, null));
+            log.debug("User deleted successfully with id: {}", id);
+            return true;
+        }
+
+        log.debug("No user found to delete with id: {}", id);
+        return false;
+    }
+
+    @Override
+    public boolean userExists(Long id) {
+        log.debug("Checking if user exists with id: {}", id);
+        return store.exists(id);
+    }
+
+    /**
+     * Published after the write, so two writers on one user may publish out of order;
+     * subscribers keep the user with the latest updatedAt
+     */
+    private void publish(String type, User user) {
+        changes.accept(new UserChange(type, user.getId(), UserMapper.toResponse(user)));
+    }
+
+    private static boolean isBeyond(User user, UserCursor position, UserSort sort) {
+        int order = sort.isByCreatedAt()
+                ? user.getCreatedAt().compareTo(position.getCreatedAt())
+                : 0;
+        if (order == 0) {
+            order = Long.compare(user.getId(), position.getId());
+        }
+        return sort.isDescending() ? order < 0 : order > 0;
+    }
+}
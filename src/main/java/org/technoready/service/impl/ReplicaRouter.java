@@ -0,0 +1,171 @@
+package org.technoready.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.ConnectionException;
+import org.jdbi.v3.core.Jdbi;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Replica Router
+ * Chooses the Jdbi a read runs on when a read replica is configured:
+ * - a client that wrote within the sticky window reads from the primary (read-your-writes)
+ * - a replica connection failure sends reads to the primary until the retry backoff elapses
+ * Writes always use {@link #primary()}; without a replica every read goes there too
+ * The client is bound per request thread; stickiness is per node, not shared across nodes
+ */
+@Slf4j
+public class ReplicaRouter {
+
+    private static final int SWEEP_EVERY_WRITES = 1024;
+
+    private final Jdbi primary;
+    private final Jdbi replica;
+    private final long stickyWindowNanos;
+    private final long retryNanos;
+
+    private final ThreadLocal<String> currentClient = new ThreadLocal<>();
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+    private final AtomicLong writes = new AtomicLong();
+    private volatile long replicaDownUntil;
+    private volatile boolean replicaDown;
+
+    public ReplicaRouter(Jdbi primary, Jdbi replica, long stickyWindowMillis, long retryMillis) {
+        this.primary = primary;
+        this.replica = replica;
+        this.stickyWindowNanos = TimeUnit.MILLISECONDS.toNanos(stickyWindowMillis);
+        this.retryNanos = TimeUnit.MILLISECONDS.toNanos(retryMillis);
+    }
+
+    /**
+     * Router without a replica: every read and write goes to the primary
+     */
+    public static ReplicaRouter primaryOnly(Jdbi primary) {
+        return new ReplicaRouter(primary, null, 0, 0);
+    }
+
+    public Jdbi primary() {
+        return primary;
+    }
+
+    public boolean hasReplica() {
+        return replica != null;
+    }
+
+    /**
+     * Associate the current request thread with a client key, null clears it
+     */
+    public void bindClient(String clientKey) {
+        if (clientKey == null) {
+            currentClient.remove();
+        } else {
+            currentClient.set(clientKey);
+        }
+    }
+
+    /**
+     * Record a write by the current client, pinning its reads to the primary for the sticky window
+     */
+    public void markWrite() {
+        String client = currentClient.get();
+        if (replica == null || client == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        stickyUntil.put(client, now + stickyWindowNanos);
+        if (writes.incrementAndGet() % SWEEP_EVERY_WRITES == 0) {
+            stickyUntil.values().removeIf(deadline -> deadline - now < 0);
+        }
+    }
+
+    /**
+     * Run a read on the replica when allowed, retried on the primary if the replica connection fails
+     */
+    public <T> T read(Function<Jdbi, T> query) {
+        return readOn(useReplicaFor(currentClient.get()), query, true);
+    }
+
+    /**
+     * Streaming read: only a failure to obtain the connection falls back,
+     * once rows have reached the consumer a retry would deliver them twice
+     */
+    public void stream(Consumer<Jdbi> query) {
+        readOn(useReplicaFor(currentClient.get()), jdbi -> {
+            query.accept(jdbi);
+            return null;
+        }, false);
+    }
+
+    private <T> T readOn(boolean useReplica, Function<Jdbi, T> query, boolean retryMidQuery) {
+        if (!useReplica) {
+            return query.apply(primary);
+        }
+        try {
+            return query.apply(replica);
+        } catch (RuntimeException e) {
+            boolean connectionLost = e instanceof ConnectionException;
+            if (!connectionLost && !(retryMidQuery && isConnectionFailure(e))) {
+                throw e;
+            }
+            markReplicaDown(e);
+            return query.apply(primary);
+        }
+    }
+
+    private boolean useReplicaFor(String client) {
+        if (replica == null) {
+            return false;
+        }
+        long now = System.nanoTime();
+        if (replicaDown) {
+            if (replicaDownUntil - now > 0) {
+                return false;
+            }
+            // Backoff elapsed, let the next reads probe the replica again
+            replicaDown = false;
+            log.info("Retrying reads on the replica");
+        }
+        if (client == null) {
+            return true;
+        }
+        Long deadline = stickyUntil.get(client);
+        if (deadline == null) {
+            return true;
+        }
+        if (deadline - now > 0) {
+            return false;
+        }
+        stickyUntil.remove(client, deadline);
+        return true;
+    }
+
+    private void markReplicaDown(RuntimeException e) {
+        replicaDownUntil = System.nanoTime() + retryNanos;
+        if (!replicaDown) {
+            replicaDown = true;
+            log.warn("Replica unavailable, reading from the primary for {} ms: {}",
+                    TimeUnit.NANOSECONDS.toMillis(retryNanos), e.getMessage());
+        }
+    }
+
+    /**
+     * SQLState class 08 (connection exception) and 57P (operator intervention, e.g. shutdown)
+     */
+    private static boolean isConnectionFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                String state = sqlException.getSQLState();
+                if (state != null && (state.startsWith("08") || state.startsWith("57P"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
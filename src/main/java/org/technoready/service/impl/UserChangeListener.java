@@ -0,0 +1,137 @@
+package org.technoready.service.impl;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.technoready.dto.response.UserChange;
+import org.technoready.dto.response.UserResponse;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * User Change Listener
+ * One dedicated connection per node, outside the pool, LISTENing on the channel the users_change_notify
+ * trigger publishes to. Notifications arrive in commit order and are handed to onChange one at a time
+ * Whenever the connection is (re)established changes may have been missed meanwhile, so onGap runs;
+ * a TRUNCATE is reported the same way
+ */
+@Slf4j
+public class UserChangeListener implements AutoCloseable {
+
+    public static final String CHANNEL = "user_changes";
+
+    private static final int POLL_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final Gson gson;
+    private final Consumer<UserChange> onChange;
+    private final Consumer<String> onGap;
+    private final Thread listener;
+    private volatile boolean running = true;
+
+    public UserChangeListener(String url, String username, String password, Gson gson,
+                              Consumer<UserChange> onChange, Consumer<String> onGap) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.gson = gson;
+        this.onChange = onChange;
+        this.onGap = onGap;
+        this.listener = new Thread(this::run, "user-change-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    private void run() {
+        long backoff = 500;
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Listening for user changes on channel '{}'", CHANNEL);
+                if (connectedBefore) {
+                    onGap.accept("change listener reconnected");
+                }
+                connectedBefore = true;
+                backoff = 500;
+
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("User change listener connection lost, retrying in {} ms: {}", backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        Notification notification;
+        try {
+            notification = gson.fromJson(payload, Notification.class);
+        } catch (JsonParseException e) {
+            log.warn("Ignoring malformed user change notification: {}", payload);
+            return;
+        }
+        if (notification == null || notification.op == null) {
+            return;
+        }
+        switch (notification.op) {
+            case "INSERT" -> onChange.accept(new UserChange(UserChange.CREATED, notification.id, notification.toUser()));
+            case "UPDATE" -> onChange.accept(new UserChange(UserChange.UPDATED, notification.id, notification.toUser()));
+            case "DELETE" -> onChange.accept(new UserChange(UserChange.DELETED, notification.id, null));
+            case "TRUNCATE" -> onGap.accept("users truncated");
+            default -> log.warn("Ignoring user change notification with op {}", notification.op);
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        listener.interrupt();
+    }
+
+    /**
+     * Payload built by notify_user_change(), see db/migration/V4__user_change_notify.sql
+     */
+    private static final class Notification {
+        private String op;
+        private long id;
+        private String username;
+        private String email;
+        private String fullName;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+
+        private UserResponse toUser() {
+            return new UserResponse(id, username, email, fullName, createdAt, updatedAt);
+        }
+    }
+}
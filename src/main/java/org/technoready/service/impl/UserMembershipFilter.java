@@ -0,0 +1,136 @@
+package org.technoready.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.JdbiException;
+import org.technoready.dao.UserDao;
+import org.technoready.entity.User;
+import org.technoready.util.BloomFilter;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * User Membership Filter
+ * In-memory Bloom filter over user ids, rebuilt from the table at startup
+ * A negative answer is definite for every id up to the startup watermark, so lookups
+ * for ids that never existed skip the database; ids above the watermark may have been
+ * created by another node and are always reported as possibly present
+ * The watermark is settled before the scan without blocking writers, not taken from the scan
+ */
+@Slf4j
+public class UserMembershipFilter {
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final long MIN_EXPECTED_USERS = 10_000;
+    private static final long SETTLE_TIMEOUT_MILLIS = 5000;
+    private static final long SETTLE_POLL_MILLIS = 20;
+
+    private final boolean enabled;
+    private final BloomFilter ids;
+    private final long idWatermark;
+    private final AtomicLong skippedLookups = new AtomicLong();
+
+    private UserMembershipFilter(boolean enabled, BloomFilter ids, long idWatermark) {
+        this.enabled = enabled;
+        this.ids = ids;
+        this.idWatermark = idWatermark;
+    }
+
+    /**
+     * Filter that answers "possibly present" for everything, used when the guard is turned off
+     */
+    public static UserMembershipFilter disabled() {
+        return new UserMembershipFilter(false, null, Long.MAX_VALUE);
+    }
+
+    /**
+     * Size the filter from the row count and populate it in one streaming pass
+     */
+    public static UserMembershipFilter build(Jdbi jdbi, double falsePositiveRate) {
+        long started = System.nanoTime();
+        long idWatermark = settledWatermark(jdbi);
+
+        return jdbi.inTransaction(handle -> {
+            UserDao dao = handle.attach(UserDao.class);
+
+            long estimatedRows = dao.estimateCount();
+            if (estimatedRows <= 0) {
+                // Table never analyzed, fall back to an exact count
+                estimatedRows = dao.count();
+            }
+            // Leave headroom for the users created while this node runs
+            long expected = Math.max(MIN_EXPECTED_USERS, estimatedRows * 2);
+
+            BloomFilter ids = BloomFilter.create(expected, falsePositiveRate);
+            long[] rows = {0};
+
+            // Starts after the watermark was settled, so it sees every id up to it
+            dao.streamIds(STREAM_FETCH_SIZE).forEach(id -> {
+                ids.put(id);
+                rows[0]++;
+            });
+
+            log.info("User membership filter built from {} rows in {} ms ({} bits, {} hashes, watermark id {})",
+                    rows[0], (System.nanoTime() - started) / 1_000_000,
+                    ids.getNumBits(), ids.getNumHashes(), idWatermark);
+            return new UserMembershipFilter(true, ids, idWatermark);
+        });
+    }
+
+    /**
+     * Highest id below which no row can still appear
+     * Serials are handed out before commit, so the largest committed id says nothing about lower ones
+     * still in flight; instead take the last id issued, then wait until every transaction that began
+     * before it was read has ended: each id up to it is then committed or gone for good
+     * Only this node waits, writers are never blocked; falls back to 0, no definite negatives, when
+     * a transaction stays open past the timeout
+     * Assumes the id sequence has no per-session cache and that other writers' sessions are visible
+     * in pg_stat_activity (same role, or pg_read_all_stats)
+     */
+    private static long settledWatermark(Jdbi jdbi) {
+        try {
+            long lastIssued = jdbi.withExtension(UserDao.class, UserDao::lastIssuedId);
+            OffsetDateTime readAt = jdbi.withExtension(UserDao.class, UserDao::databaseNow);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SETTLE_TIMEOUT_MILLIS);
+            while (jdbi.withExtension(UserDao.class, dao -> dao.countWritersSince(readAt)) > 0) {
+                if (System.nanoTime() - deadline > 0) {
+                    log.warn("Transactions older than {} ms still open, user membership filter will not skip lookups",
+                            SETTLE_TIMEOUT_MILLIS);
+                    return 0;
+                }
+                TimeUnit.MILLISECONDS.sleep(SETTLE_POLL_MILLIS);
+            }
+            return lastIssued;
+        } catch (JdbiException e) {
+            log.warn("Cannot settle the user membership watermark, filter will not skip lookups: {}",
+                    e.getMessage());
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    public boolean mightContainId(long id) {
+        if (!enabled) {
+            return true;
+        }
+        if (id <= 0 || (id <= idWatermark && !ids.mightContain(id))) {
+            skippedLookups.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void add(User user) {
+        if (enabled) {
+            ids.put(user.getId());
+        }
+    }
+
+    public long getSkippedLookups() {
+        return skippedLookups.get();
+    }
+}
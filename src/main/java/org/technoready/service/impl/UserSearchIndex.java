@@ -0,0 +1,243 @@
+package org.technoready.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.Jdbi;
+import org.technoready.dao.UserDao;
+import org.technoready.dto.response.UserSuggestion;
+import org.technoready.entity.User;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * User Search Index
+ * In-memory prefix index over usernames and full names for typeahead search
+ * Terms are normalized (accents stripped, lower case, punctuation folded to single spaces) and kept
+ * in one sorted map as kind + term + '\0' + id, so a prefix query is a range scan that stops after
+ * limit hits: O(limit + log n) whatever the table size
+ * Ranking: username matches, then full name matches, then matches on a later word of the full name;
+ * within each, exact terms first and then alphabetical
+ * Built by streaming the table at startup and maintained by this node's writes only
+ * A delete leaves a tombstone for its id: ids are never reused, so any later put for it comes from
+ * a write that lost the race with the delete and is dropped
+ */
+@Slf4j
+public class UserSearchIndex {
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final char USERNAME = '1';
+    private static final char FULL_NAME = '2';
+    private static final char NAME_WORD = '3';
+    private static final char[] KINDS = {USERNAME, FULL_NAME, NAME_WORD};
+    private static final char TERMINATOR = '\0';
+
+    private final boolean enabled;
+    private final NavigableMap<String, UserSuggestion> terms = new ConcurrentSkipListMap<>();
+    // Keys currently indexed for each user, so updates and deletes know what to remove
+    private final Map<Long, Indexed> indexedById = new ConcurrentHashMap<>();
+
+    private UserSearchIndex(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Index that rejects searches and ignores writes, used when search is turned off
+     */
+    public static UserSearchIndex disabled() {
+        return new UserSearchIndex(false);
+    }
+
+    /**
+     * Empty index, filled through {@link #put}
+     */
+    public static UserSearchIndex empty() {
+        return new UserSearchIndex(true);
+    }
+
+    /**
+     * Populate the index in one streaming pass over the table
+     */
+    public static UserSearchIndex build(Jdbi jdbi) {
+        long started = System.nanoTime();
+        UserSearchIndex index = empty();
+        // PostgreSQL only honours the fetch size with autocommit disabled
+        jdbi.useTransaction(handle -> handle.attach(UserDao.class)
+                .streamAll(STREAM_FETCH_SIZE)
+                .forEach(index::put));
+        log.info("User search index built for {} users in {} ms ({} terms)",
+                index.indexedById.size(), (System.nanoTime() - started) / 1_000_000, index.terms.size());
+        return index;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Index a new user or replace the terms of an existing one, unless a newer version or the delete got here first
+     */
+    public void put(User user) {
+        if (!enabled) {
+            return;
+        }
+        UserSuggestion suggestion = new UserSuggestion(user.getId(), user.getUsername(), user.getFullName());
+        Indexed indexed = new Indexed(keysFor(user), user.getUpdatedAt());
+        // Per-id serialization: concurrent writes to one user cannot interleave their term changes
+        indexedById.compute(user.getId(), (id, previous) -> {
+            if (previous != null) {
+                if (previous == Indexed.DELETED || previous.isNewerThan(indexed)) {
+                    // A racing write of a later version got here first
+                    return previous;
+                }
+                for (String key : previous.keys) {
+                    terms.remove(key);
+                }
+            }
+            for (String key : indexed.keys) {
+                terms.put(key, suggestion);
+            }
+            return indexed;
+        });
+    }
+
+    /**
+     * Drop the user's terms and keep a tombstone, so a put still in flight cannot bring them back
+     */
+    public void remove(long id) {
+        if (!enabled) {
+            return;
+        }
+        indexedById.compute(id, (key, previous) -> {
+            if (previous == Indexed.DELETED) {
+                return previous;
+            }
+            if (previous != null) {
+                for (String term : previous.keys) {
+                    terms.remove(term);
+                }
+            }
+            return Indexed.DELETED;
+        });
+    }
+
+    /**
+     * Top matches for the query prefix, at most limit users
+     */
+    public List<UserSuggestion> search(String query, int limit) {
+        if (!enabled) {
+            throw new IllegalStateException("User search is disabled");
+        }
+        String prefix = normalize(query);
+        List<UserSuggestion> results = new ArrayList<>(Math.min(limit, 16));
+        if (prefix.isEmpty()) {
+            return results;
+        }
+        for (char kind : KINDS) {
+            String from = kind + prefix;
+            for (UserSuggestion hit : terms.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+                if (results.size() == limit) {
+                    return results;
+                }
+                // A user matching on several fields is listed once, at its best rank
+                if (!containsId(results, hit.getId())) {
+                    results.add(hit);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Number of indexed terms, three or so per user
+     */
+    public int getTermCount() {
+        return terms.size();
+    }
+
+    private static List<String> keysFor(User user) {
+        List<String> keys = new ArrayList<>(4);
+        String suffix = TERMINATOR + Long.toString(user.getId());
+        String username = normalize(user.getUsername());
+        if (!username.isEmpty()) {
+            keys.add(USERNAME + username + suffix);
+        }
+        String fullName = normalize(user.getFullName());
+        if (!fullName.isEmpty()) {
+            keys.add(FULL_NAME + fullName + suffix);
+            // "mary ann smith" is also found from "ann" and "smith"
+            for (int i = fullName.indexOf(' '); i >= 0; i = fullName.indexOf(' ', i + 1)) {
+                keys.add(NAME_WORD + fullName.substring(i + 1) + suffix);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Lower case without accents, every run of non letters/digits becomes one space, no outer spaces
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = isAscii(value) ? value : Normalizer.normalize(value, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                pendingSpace = false;
+                normalized.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsId(List<UserSuggestion> results, long id) {
+        for (UserSuggestion result : results) {
+            if (result.getId() == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Indexed {
+        // Shared by every deleted id, only the map entry itself is paid per delete
+        private static final Indexed DELETED = new Indexed(List.of(), null);
+
+        private final List<String> keys;
+        private final LocalDateTime updatedAt;
+
+        private Indexed(List<String> keys, LocalDateTime updatedAt) {
+            this.keys = keys;
+            this.updatedAt = updatedAt;
+        }
+
+        private boolean isNewerThan(Indexed other) {
+            return updatedAt != null && other.updatedAt != null && updatedAt.isAfter(other.updatedAt);
+        }
+    }
+}
@@ -4,14 +4,28 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jdbi.v3.core.Jdbi;
 import org.technoready.dao.UserDao;
+import org.technoready.dao.UserQueryCompiler;
+import org.technoready.dto.Page;
+import org.technoready.dto.UserQuery;
 import org.technoready.dto.request.CreateUserRequest;
 import org.technoready.dto.request.UpdateUserRequest;
+import org.technoready.dto.response.BatchItemResult;
+import org.technoready.dto.response.UserSuggestion;
 import org.technoready.entity.User;
+import org.technoready.exception.PreconditionFailedException;
+import org.technoready.exception.UserNotFoundException;
 import org.technoready.service.UserService;
+import org.technoready.util.UserCursor;
 import org.technoready.util.UserMapper;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * User Service Implementation
@@ -21,82 +35,272 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final int DEFAULT_BATCH_CHUNK_SIZE = 500;
+    private static final int DEFAULT_BATCH_MAX_SIZE = 5000;
+
     private final Jdbi jdbi;
+    private final UserMembershipFilter membershipFilter;
+    private final int batchChunkSize;
+    private final int batchMaxSize;
+    /** Optional, null keeps every create on its own connection and commit */
+    private final GroupCommitUserWriter groupCommitWriter;
+    /** Where reads run; jdbi stays the primary used by every write */
+    private final ReplicaRouter replicaRouter;
+    /** Kept in step with every write below */
+    private final UserSearchIndex searchIndex;
+
+    public UserServiceImpl(Jdbi jdbi) {
+        this(jdbi, UserMembershipFilter.disabled(), DEFAULT_BATCH_CHUNK_SIZE, DEFAULT_BATCH_MAX_SIZE, null,
+                ReplicaRouter.primaryOnly(jdbi), UserSearchIndex.disabled());
+    }
 
     @Override
     public List<User> getAllUsers() {
         log.debug("Fetching all users");
-        return jdbi.withExtension(UserDao.class, UserDao::findAll);
+        return replicaRouter.read(db -> db.withExtension(UserDao.class, UserDao::findAll));
+    }
+
+    @Override
+    public void forEachUser(Consumer<User> consumer) {
+        log.debug("Streaming all users with fetch size: {}", STREAM_FETCH_SIZE);
+
+        // PostgreSQL only honours the fetch size with autocommit disabled
+        replicaRouter.stream(db -> db.useTransaction(handle -> handle.attach(UserDao.class)
+                .streamAll(STREAM_FETCH_SIZE)
+                .forEach(consumer)));
+    }
+
+    @Override
+    public Page<User> getUsersPage(String cursor, int limit) {
+        log.debug("Fetching users page with limit: {}", limit);
+
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be greater than zero");
+        }
+
+        // Fetch one extra row to know whether another page follows
+        int fetchSize = limit + 1;
+        List<User> users;
+        if (cursor == null || cursor.isBlank()) {
+            users = replicaRouter.read(db -> db.withExtension(UserDao.class,
+                    dao -> dao.findFirstPage(fetchSize)));
+        } else {
+            UserCursor position = UserCursor.decode(cursor);
+            users = replicaRouter.read(db -> db.withExtension(UserDao.class,
+                    dao -> dao.findPageAfter(position.getCreatedAt(), position.getId(), fetchSize)));
+        }
+
+        if (users.size() <= limit) {
+            return new Page<>(users, null);
+        }
+
+        List<User> items = users.subList(0, limit);
+        String nextCursor = UserCursor.after(items.get(limit - 1)).encode();
+        return new Page<>(items, nextCursor);
+    }
+
+    @Override
+    public Page<User> findUsers(UserQuery query) {
+        log.debug("Fetching users page with query: {}", query.cacheKey());
+
+        query.validate();
+        int limit = query.getLimit();
+        List<User> users = replicaRouter.read(db -> db.withHandle(handle ->
+                UserQueryCompiler.compile(handle, query, limit + 1).mapToBean(User.class).list()));
+
+        if (users.size() <= limit) {
+            return new Page<>(users, null);
+        }
+
+        List<User> items = users.subList(0, limit);
+        String nextCursor = UserCursor.after(items.get(limit - 1)).encode();
+        return new Page<>(items, nextCursor);
+    }
+
+    @Override
+    public List<UserSuggestion> searchUsers(String query, int limit) {
+        log.debug("Searching users with limit: {}", limit);
+        return searchIndex.search(query, limit);
     }
 
     @Override
     public User createUser(CreateUserRequest request) {
-        log.info("Creating new user with username: {}", request.getUsername());
+        log.debug("Creating new user with username: {}", request.getUsername());
 
         // Validate request
         request.validate();
 
-        // Check if username already exists
-        Optional<User> existingUser = jdbi.withExtension(UserDao.class,
-                dao -> dao.findByUsername(request.getUsername()));
-
-        if (existingUser.isPresent()) {
-            throw new IllegalArgumentException("Username already exists: " + request.getUsername());
+        if (groupCommitWriter != null) {
+            // Conflicts are detected by the batch insert itself, no lookup needed
+            User user = groupCommitWriter.insert(UserMapper.toEntity(request));
+            membershipFilter.add(user);
+            searchIndex.put(user);
+            replicaRouter.markWrite();
+            log.debug("User created successfully with id: {}", user.getId());
+            return user;
         }
 
-        // Map and insert
-        User user = UserMapper.toEntity(request);
-        long generatedId = jdbi
-                .withExtension(UserDao.class, dao -> dao.insert(user));
-        user.setId(generatedId);
+        // Single statement: the UNIQUE constraint decides, no lookup beforehand
+        User user = jdbi.withExtension(UserDao.class, dao -> dao.insertIfAbsent(UserMapper.toEntity(request)))
+                .orElseThrow(() -> new IllegalArgumentException("Username already exists: " + request.getUsername()));
+        membershipFilter.add(user);
+        searchIndex.put(user);
 
-        log.info("User created successfully with id: {}", generatedId);
+        replicaRouter.markWrite();
+        log.debug("User created successfully with id: {}", user.getId());
         return user;
     }
 
+    @Override
+    public List<BatchItemResult> createUsers(List<CreateUserRequest> requests) {
+        log.debug("Creating {} users in batch", requests.size());
+
+        if (requests.size() > batchMaxSize) {
+            throw new IllegalArgumentException("Batch must not exceed " + batchMaxSize + " users");
+        }
+
+        // Validate everything up front, only clean and unique items reach the database
+        BatchItemResult[] results = new BatchItemResult[requests.size()];
+        Map<String, Integer> indexByUsername = new HashMap<>();
+        List<User> candidates = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CreateUserRequest request = requests.get(i);
+            if (request == null) {
+                results[i] = BatchItemResult.invalid(i, null, "Item is required");
+                continue;
+            }
+            try {
+                request.validate();
+            } catch (IllegalArgumentException e) {
+                results[i] = BatchItemResult.invalid(i, request.getUsername(), e.getMessage());
+                continue;
+            }
+            if (indexByUsername.putIfAbsent(request.getUsername(), i) != null) {
+                results[i] = BatchItemResult.conflict(i, request.getUsername(),
+                        "Duplicate username in batch: " + request.getUsername());
+                continue;
+            }
+            candidates.add(UserMapper.toEntity(request));
+        }
+
+        int created = 0;
+        if (!candidates.isEmpty()) {
+            List<User> inserted = jdbi.inTransaction(handle ->
+                    handle.attach(UserDao.class).insertBatch(candidates, batchChunkSize));
+
+            Map<String, User> insertedByUsername = new HashMap<>();
+            for (User user : inserted) {
+                insertedByUsername.put(user.getUsername(), user);
+            }
+            for (User candidate : candidates) {
+                int index = indexByUsername.get(candidate.getUsername());
+                User user = insertedByUsername.get(candidate.getUsername());
+                if (user != null) {
+                    membershipFilter.add(user);
+                    searchIndex.put(user);
+                    created++;
+                    results[index] = BatchItemResult.created(index, user.getUsername(), user.getId());
+                } else {
+                    results[index] = BatchItemResult.conflict(index, candidate.getUsername(),
+                            "Username already exists: " + candidate.getUsername());
+                }
+            }
+        }
+
+        replicaRouter.markWrite();
+        log.debug("Batch created {} of {} users", created, requests.size());
+        return Arrays.asList(results);
+    }
+
     @Override
     public Optional<User> getUserById(Long id) {
         log.debug("Fetching user with id: {}", id);
-        return jdbi.withExtension(UserDao.class, dao -> dao.findById(id));
+        if (!membershipFilter.mightContainId(id)) {
+            return Optional.empty();
+        }
+        return replicaRouter.read(db -> db.withExtension(UserDao.class, dao -> dao.findById(id)));
     }
 
     @Override
     public User updateUser(Long id, UpdateUserRequest request) {
-        log.info("Updating user with id: {}", id);
+        log.debug("Updating user with id: {}", id);
 
         // Validate request
         request.validate();
 
-        // Find existing user
-        User user = getUserById(id)
-                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + id));
+        // Single statement: only non-blank fields are applied, the new row comes back
+        User updatedUser = jdbi.withExtension(UserDao.class, dao -> dao.updatePartial(id,
+                        UserMapper.blankToNull(request.getEmail()),
+                        UserMapper.blankToNull(request.getFullName()),
+                        LocalDateTime.now()))
+                .orElseThrow(() -> new UserNotFoundException(id));
+        searchIndex.put(updatedUser);
 
-        // Update user
-        User updatedUser = UserMapper.updateEntity(user, request);
-        jdbi.useExtension(UserDao.class, dao -> dao.update(updatedUser));
+        replicaRouter.markWrite();
+        log.debug("User updated successfully with id: {}", id);
+        return updatedUser;
+    }
 
-        log.info("User updated successfully with id: {}", id);
+    @Override
+    public User updateUserIfUnmodified(Long id, UpdateUserRequest request, List<LocalDateTime> expectedVersions) {
+        log.debug("Conditionally updating user with id: {}", id);
+
+        request.validate();
+        if (expectedVersions.isEmpty()) {
+            // None of the client's tags can describe this user; only the 404/412 choice is left
+            if (!jdbi.withExtension(UserDao.class, dao -> dao.exists(id))) {
+                throw new UserNotFoundException(id);
+            }
+            throw new PreconditionFailedException(id);
+        }
+
+        // The version check and the write are one statement, so no concurrent update can slip in between
+        User updatedUser = jdbi.withExtension(UserDao.class, dao -> dao.updatePartialIfUnmodified(id,
+                        UserMapper.blankToNull(request.getEmail()),
+                        UserMapper.blankToNull(request.getFullName()),
+                        LocalDateTime.now(),
+                        expectedVersions)
+                .orElseThrow(() -> dao.exists(id)
+                        ? new PreconditionFailedException(id)
+                        : new UserNotFoundException(id)));
+        searchIndex.put(updatedUser);
+
+        replicaRouter.markWrite();
         return updatedUser;
     }
 
+    @Override
+    public long getUsersVersion() {
+        // Same route as the list it tags: a client inside its read-your-writes window reads both
+        // from the primary, any other client reads both from the replica
+        return replicaRouter.read(db -> db.withExtension(UserDao.class, UserDao::currentVersion));
+    }
+
     @Override
     public boolean deleteUser(Long id) {
-        log.info("Deleting user with id: {}", id);
+        log.debug("Deleting user with id: {}", id);
 
         int rowsAffected = jdbi.withExtension(UserDao.class, dao -> dao.delete(id));
 
         if (rowsAffected > 0) {
-            log.info("User deleted successfully with id: {}", id);
+            searchIndex.remove(id);
+            replicaRouter.markWrite();
+            log.debug("User deleted successfully with id: {}", id);
             return true;
         }
 
-        log.warn("No user found to delete with id: {}", id);
+        log.debug("No user found to delete with id: {}", id);
         return false;
     }
 
     @Override
     public boolean userExists(Long id) {
         log.debug("Checking if user exists with id: {}", id);
-        return jdbi.withExtension(UserDao.class, dao -> dao.exists(id));
+        if (!membershipFilter.mightContainId(id)) {
+            return false;
+        }
+        return replicaRouter.read(db -> db.withExtension(UserDao.class, dao -> dao.exists(id)));
     }
 }
@@ -0,0 +1,92 @@
+package org.technoready.util;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.technoready.dto.response.ApiResponse;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * Gson TypeAdapterFactory for ApiResponse
+ * Writes the envelope directly; data is written with the adapter of its runtime type,
+ * the same choice the reflective adapter makes for an unresolved type parameter
+ */
+public class ApiResponseTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != ApiResponse.class) {
+            return null;
+        }
+        Type dataType = type.getType() instanceof ParameterizedType parameterized
+                ? parameterized.getActualTypeArguments()[0]
+                : Object.class;
+        return (TypeAdapter<T>) new ApiResponseTypeAdapter(gson, gson.getAdapter(TypeToken.get(dataType)));
+    }
+
+    private static final class ApiResponseTypeAdapter extends TypeAdapter<ApiResponse<Object>> {
+
+        private final Gson gson;
+        private final TypeAdapter<?> dataReader;
+
+        private ApiResponseTypeAdapter(Gson gson, TypeAdapter<?> dataReader) {
+            this.gson = gson;
+            this.dataReader = dataReader;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void write(JsonWriter out, ApiResponse<Object> value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("success").value(value.isSuccess());
+            out.name("message").value(value.getMessage());
+            out.name("data");
+            Object data = value.getData();
+            if (data == null) {
+                out.nullValue();
+            } else {
+                ((TypeAdapter<Object>) gson.getAdapter(data.getClass())).write(out, data);
+            }
+            out.name("next").value(value.getNext());
+            out.endObject();
+        }
+
+        @Override
+        public ApiResponse<Object> read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ApiResponse<Object> response = new ApiResponse<>();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "success" -> response.setSuccess(in.nextBoolean());
+                    case "message" -> response.setMessage(in.nextString());
+                    case "data" -> response.setData(dataReader.read(in));
+                    case "next" -> response.setNext(in.nextString());
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return response;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.technoready.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom Filter
+ * Thread-safe probabilistic set over longs
+ * mightContain never returns false for an added value; true may be a false positive
+ * at roughly the configured rate while fewer than expectedInsertions values were added
+ */
+public class BloomFilter {
+
+    private static final int MIN_BITS = 1024;
+
+    private final AtomicLongArray words;
+    private final long numBits;
+    private final int numHashes;
+
+    private BloomFilter(long numBits, int numHashes) {
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+        this.words = new AtomicLongArray(Math.toIntExact((numBits + 63) >>> 6));
+    }
+
+    /**
+     * Size the filter for the expected number of values and false positive probability
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        bits = Math.max(MIN_BITS, bits);
+        int hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+        return new BloomFilter(bits, hashes);
+    }
+
+    public void put(long value) {
+        long hash = mix(value);
+        setBits(hash, mix(hash ^ 0x9E3779B97F4A7C15L));
+    }
+
+    public boolean mightContain(long value) {
+        long hash = mix(value);
+        return testBits(hash, mix(hash ^ 0x9E3779B97F4A7C15L));
+    }
+
+    public long getNumBits() {
+        return numBits;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    // Double hashing (Kirsch-Mitzenmacher): k probe positions from two 64-bit hashes
+    private void setBits(long h1, long h2) {
+        long combined = h1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = (combined & Long.MAX_VALUE) % numBits;
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long word = words.get(index);
+            while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask)) {
+                word = words.get(index);
+            }
+            combined += h2;
+        }
+    }
+
+    private boolean testBits(long h1, long h2) {
+        long combined = h1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = (combined & Long.MAX_VALUE) % numBits;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+            combined += h2;
+        }
+        return true;
+    }
+
+    // MurmurHash3 fmix64 finalizer
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
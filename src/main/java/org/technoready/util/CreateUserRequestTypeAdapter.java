@@ -0,0 +1,54 @@
+package org.technoready.util;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.technoready.dto.request.CreateUserRequest;
+
+import java.io.IOException;
+
+/**
+ * Gson TypeAdapter for CreateUserRequest
+ * Reads request bodies field by field without reflection, unknown fields are skipped
+ */
+public class CreateUserRequestTypeAdapter extends TypeAdapter<CreateUserRequest> {
+
+    @Override
+    public void write(JsonWriter out, CreateUserRequest value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("username").value(value.getUsername());
+        out.name("email").value(value.getEmail());
+        out.name("fullName").value(value.getFullName());
+        out.endObject();
+    }
+
+    @Override
+    public CreateUserRequest read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        CreateUserRequest request = new CreateUserRequest();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "username" -> request.setUsername(in.nextString());
+                case "email" -> request.setEmail(in.nextString());
+                case "fullName" -> request.setFullName(in.nextString());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return request;
+    }
+}
@@ -3,6 +3,7 @@ package org.technoready.util;
 
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 
 import java.io.IOException;
@@ -13,23 +14,84 @@ import java.time.format.DateTimeFormatter;
  * Gson TypeAdapter for LocalDateTime
  * Handles serialization and deserialization of LocalDateTime objects
  * Solves Java 17+ module restrictions with Gson
+ * Writing uses a hand-rolled ISO_LOCAL_DATE_TIME printer instead of DateTimeFormatter
  */
 public class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
 
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
+    // "yyyy-MM-ddTHH:mm:ss" plus ".nnnnnnnnn" plus two quotes
+    private static final int MAX_QUOTED_LENGTH = 31;
+
     @Override
     public void write(JsonWriter out, LocalDateTime value) throws IOException {
+        writeValue(out, value);
+    }
+
+    @Override
+    public LocalDateTime read(JsonReader in) throws IOException {
+        return readValue(in);
+    }
+
+    /**
+     * Write a timestamp exactly as ISO_LOCAL_DATE_TIME would, shared by the DTO adapters
+     */
+    public static void writeValue(JsonWriter out, LocalDateTime value) throws IOException {
         if (value == null) {
             out.nullValue();
-        } else {
+            return;
+        }
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            // Signed and five digit years are rare enough to leave to the formatter
             out.value(value.format(FORMATTER));
+            return;
         }
+
+        // The printed form never needs escaping, so it goes out as a pre-quoted literal
+        char[] buf = new char[MAX_QUOTED_LENGTH];
+        buf[0] = '"';
+        writeDigits(buf, 1, year, 4);
+        buf[5] = '-';
+        writeDigits(buf, 6, value.getMonthValue(), 2);
+        buf[8] = '-';
+        writeDigits(buf, 9, value.getDayOfMonth(), 2);
+        buf[11] = 'T';
+        writeDigits(buf, 12, value.getHour(), 2);
+        buf[14] = ':';
+        writeDigits(buf, 15, value.getMinute(), 2);
+        buf[17] = ':';
+        writeDigits(buf, 18, value.getSecond(), 2);
+        int length = 20;
+
+        int nano = value.getNano();
+        if (nano != 0) {
+            // Fraction is printed with trailing zeros removed, as appendFraction(NANO_OF_SECOND, 0, 9, true)
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            buf[length++] = '.';
+            writeDigits(buf, length, nano, digits);
+            length += digits;
+        }
+        buf[length++] = '"';
+        out.jsonValue(new String(buf, 0, length));
     }
 
-    @Override
-    public LocalDateTime read(JsonReader in) throws IOException {
-        String dateTimeString = in.nextString();
-        return LocalDateTime.parse(dateTimeString, FORMATTER);
+    public static LocalDateTime readValue(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return LocalDateTime.parse(in.nextString(), FORMATTER);
+    }
+
+    private static void writeDigits(char[] buf, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
     }
 }
@@ -0,0 +1,49 @@
+package org.technoready.util;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.technoready.dto.UserField;
+import org.technoready.dto.response.SparseUserList;
+import org.technoready.dto.response.UserResponse;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Gson TypeAdapter for SparseUserList
+ * Writes a plain array of user objects holding only the selected keys; write-only
+ */
+public class SparseUserListTypeAdapter extends TypeAdapter<SparseUserList> {
+
+    @Override
+    public void write(JsonWriter out, SparseUserList value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        Set<UserField> fields = value.getFields();
+        out.beginArray();
+        for (UserResponse user : value.getUsers()) {
+            out.beginObject();
+            for (UserField field : fields) {
+                out.name(field.getJsonName());
+                switch (field) {
+                    case ID -> out.value(user.getId());
+                    case USERNAME -> out.value(user.getUsername());
+                    case EMAIL -> out.value(user.getEmail());
+                    case FULL_NAME -> out.value(user.getFullName());
+                    case CREATED_AT -> LocalDateTimeAdapter.writeValue(out, user.getCreatedAt());
+                    case UPDATED_AT -> LocalDateTimeAdapter.writeValue(out, user.getUpdatedAt());
+                }
+            }
+            out.endObject();
+        }
+        out.endArray();
+    }
+
+    @Override
+    public SparseUserList read(JsonReader in) {
+        throw new UnsupportedOperationException("SparseUserList is write-only");
+    }
+}
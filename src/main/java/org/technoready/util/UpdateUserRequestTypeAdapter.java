@@ -0,0 +1,52 @@
+package org.technoready.util;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.technoready.dto.request.UpdateUserRequest;
+
+import java.io.IOException;
+
+/**
+ * Gson TypeAdapter for UpdateUserRequest
+ * Reads request bodies field by field without reflection, unknown fields are skipped
+ */
+public class UpdateUserRequestTypeAdapter extends TypeAdapter<UpdateUserRequest> {
+
+    @Override
+    public void write(JsonWriter out, UpdateUserRequest value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("email").value(value.getEmail());
+        out.name("fullName").value(value.getFullName());
+        out.endObject();
+    }
+
+    @Override
+    public UpdateUserRequest read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        UpdateUserRequest request = new UpdateUserRequest();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "email" -> request.setEmail(in.nextString());
+                case "fullName" -> request.setFullName(in.nextString());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return request;
+    }
+}
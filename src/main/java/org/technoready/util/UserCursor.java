@@ -0,0 +1,62 @@
+package org.technoready.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.technoready.entity.User;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * User Cursor
+ * Keyset position (created_at, id) of the last user of a page
+ * Encoded as an opaque URL-safe token so clients never depend on its layout
+ */
+@Getter
+@AllArgsConstructor
+public class UserCursor {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime createdAt;
+    private final long id;
+
+    /**
+     * Build the cursor pointing right after the given user
+     */
+    public static UserCursor after(User user) {
+        return new UserCursor(user.getCreatedAt(), user.getId());
+    }
+
+    /**
+     * Encode cursor as opaque token
+     */
+    public String encode() {
+        String raw = createdAt.format(FORMATTER) + SEPARATOR + id;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode an opaque token produced by {@link #encode()}
+     */
+    public static UserCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDateTime createdAt = LocalDateTime.parse(raw.substring(0, separator), FORMATTER);
+            long id = Long.parseLong(raw.substring(separator + 1));
+            return new UserCursor(createdAt, id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
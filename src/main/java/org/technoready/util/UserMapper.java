@@ -3,11 +3,11 @@ package org.technoready.util;
 
 
 import org.technoready.dto.request.CreateUserRequest;
-import org.technoready.dto.request.UpdateUserRequest;
 import org.technoready.dto.response.UserResponse;
 import org.technoready.entity.User;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -22,12 +22,14 @@ public class UserMapper {
      * Convert CreateUserRequest to User entity
      */
     public static User toEntity(CreateUserRequest request) {
+        // Microseconds, what a timestamp column keeps, so the entity matches the stored row
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         return User.builder()
                 .username(request.getUsername())
                 .email(request.getEmail())
                 .fullName(request.getFullName())
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
+                .createdAt(now)
+                .updatedAt(now)
                 .build();
     }
 
@@ -56,17 +58,10 @@ public class UserMapper {
     }
 
     /**
-     * Update existing User entity with UpdateUserRequest data
+     * Normalize an optional update field, blank values mean "leave unchanged"
      */
-    public static User updateEntity(User user, UpdateUserRequest request) {
-        if (request.getEmail() != null && !request.getEmail().trim().isEmpty()) {
-            user.setEmail(request.getEmail());
-        }
-        if (request.getFullName() != null && !request.getFullName().trim().isEmpty()) {
-            user.setFullName(request.getFullName());
-        }
-        user.setUpdatedAt(LocalDateTime.now());
-        return user;
+    public static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value;
     }
 
 
@@ -0,0 +1,62 @@
+package org.technoready.util;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.technoready.dto.response.UserResponse;
+
+import java.io.IOException;
+
+/**
+ * Gson TypeAdapter for UserResponse
+ * Writes fields directly in declaration order, matching the reflective output byte for byte
+ */
+public class UserResponseTypeAdapter extends TypeAdapter<UserResponse> {
+
+    @Override
+    public void write(JsonWriter out, UserResponse value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(value.getId());
+        out.name("username").value(value.getUsername());
+        out.name("email").value(value.getEmail());
+        out.name("fullName").value(value.getFullName());
+        out.name("createdAt");
+        LocalDateTimeAdapter.writeValue(out, value.getCreatedAt());
+        out.name("updatedAt");
+        LocalDateTimeAdapter.writeValue(out, value.getUpdatedAt());
+        out.endObject();
+    }
+
+    @Override
+    public UserResponse read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        UserResponse response = new UserResponse();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id" -> response.setId(in.nextLong());
+                case "username" -> response.setUsername(in.nextString());
+                case "email" -> response.setEmail(in.nextString());
+                case "fullName" -> response.setFullName(in.nextString());
+                case "createdAt" -> response.setCreatedAt(LocalDateTimeAdapter.readValue(in));
+                case "updatedAt" -> response.setUpdatedAt(LocalDateTimeAdapter.readValue(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return response;
+    }
+}
@@ -0,0 +1,155 @@
+package org.technoready.util;
+
+import org.technoready.dto.request.CreateUserRequest;
+import org.technoready.dto.request.UpdateUserRequest;
+import org.technoready.dto.response.FieldError;
+import org.technoready.exception.ValidationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * User Validator
+ * Single-pass validation of user requests, every field is checked and every failure reported
+ * Rules are plain character scans with shared error instances: a valid request allocates nothing,
+ * an invalid one allocates only the error list and a stackless ValidationException
+ */
+public final class UserValidator {
+
+    public static final int USERNAME_MIN_LENGTH = 3;
+    public static final int USERNAME_MAX_LENGTH = 50;
+    public static final int EMAIL_MAX_LENGTH = 100;
+    public static final int FULL_NAME_MAX_LENGTH = 100;
+
+    private static final FieldError USERNAME_REQUIRED =
+            new FieldError("username", "required", "Username is required");
+    private static final FieldError USERNAME_LENGTH = new FieldError("username", "length",
+            "Username must be between " + USERNAME_MIN_LENGTH + " and " + USERNAME_MAX_LENGTH + " characters");
+    private static final FieldError EMAIL_REQUIRED =
+            new FieldError("email", "required", "Email is required");
+    private static final FieldError EMAIL_FORMAT =
+            new FieldError("email", "format", "Invalid email format");
+    private static final FieldError EMAIL_LENGTH = new FieldError("email", "length",
+            "Email must not exceed " + EMAIL_MAX_LENGTH + " characters");
+    private static final FieldError FULL_NAME_REQUIRED =
+            new FieldError("fullName", "required", "Full name is required");
+    private static final FieldError FULL_NAME_LENGTH = new FieldError("fullName", "length",
+            "Full name must not exceed " + FULL_NAME_MAX_LENGTH + " characters");
+
+    private UserValidator() {
+    }
+
+    /**
+     * Throws a ValidationException listing every invalid field of the create request
+     */
+    public static void validate(CreateUserRequest request) {
+        List<FieldError> errors = null;
+
+        String username = request.getUsername();
+        if (isBlank(username)) {
+            errors = add(errors, USERNAME_REQUIRED);
+        } else if (username.length() < USERNAME_MIN_LENGTH || username.length() > USERNAME_MAX_LENGTH) {
+            errors = add(errors, USERNAME_LENGTH);
+        }
+
+        String email = request.getEmail();
+        if (isBlank(email)) {
+            errors = add(errors, EMAIL_REQUIRED);
+        } else if (email.length() > EMAIL_MAX_LENGTH) {
+            errors = add(errors, EMAIL_LENGTH);
+        } else if (!isEmail(email)) {
+            errors = add(errors, EMAIL_FORMAT);
+        }
+
+        String fullName = request.getFullName();
+        if (isBlank(fullName)) {
+            errors = add(errors, FULL_NAME_REQUIRED);
+        } else if (fullName.length() > FULL_NAME_MAX_LENGTH) {
+            errors = add(errors, FULL_NAME_LENGTH);
+        }
+
+        if (errors != null) {
+            throw new ValidationException(errors);
+        }
+    }
+
+    /**
+     * Throws a ValidationException listing every invalid field of the update request
+     * Blank fields mean "leave unchanged" and are not checked
+     */
+    public static void validate(UpdateUserRequest request) {
+        List<FieldError> errors = null;
+
+        String email = request.getEmail();
+        if (!isBlank(email)) {
+            if (email.length() > EMAIL_MAX_LENGTH) {
+                errors = add(errors, EMAIL_LENGTH);
+            } else if (!isEmail(email)) {
+                errors = add(errors, EMAIL_FORMAT);
+            }
+        }
+
+        String fullName = request.getFullName();
+        if (fullName != null && fullName.length() > FULL_NAME_MAX_LENGTH) {
+            errors = add(errors, FULL_NAME_LENGTH);
+        }
+
+        if (errors != null) {
+            throw new ValidationException(errors);
+        }
+    }
+
+    /**
+     * Same language as ^[A-Za-z0-9+_.-]+@(.+)$ with String.matches: a non-empty local part from that
+     * set, the first '@', then at least one character that is not a line terminator
+     */
+    static boolean isEmail(String value) {
+        int length = value.length();
+        int at = 0;
+        while (at < length && isLocalPartChar(value.charAt(at))) {
+            at++;
+        }
+        if (at == 0 || at >= length - 1 || value.charAt(at) != '@') {
+            return false;
+        }
+        for (int i = at + 1; i < length; i++) {
+            if (isLineTerminator(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same result as value.trim().isEmpty(), without creating the trimmed copy
+     */
+    static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLocalPartChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '+' || c == '_' || c == '.' || c == '-';
+    }
+
+    // What '.' refuses to match without DOTALL
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static List<FieldError> add(List<FieldError> errors, FieldError error) {
+        if (errors == null) {
+            errors = new ArrayList<>(3);
+        }
+        errors.add(error);
+        return errors;
+    }
+}
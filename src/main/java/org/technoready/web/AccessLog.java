@@ -0,0 +1,223 @@
+package org.technoready.web;
+
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jetty.server.HttpOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import spark.Request;
+import spark.Response;
+
+import javax.servlet.ServletResponse;
+import javax.servlet.ServletResponseWrapper;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Access Log
+ * One structured line per request (method, route, status, latency, bytes) on the "access" logger
+ * Request threads only claim a slot in a bounded lock-free ring buffer and copy a few fields;
+ * a single background thread formats the lines and does the logging I/O
+ * - successful responses (status below 400) are sampled at sampleRate, errors are always kept
+ * - when the buffer is full the entry is dropped and counted, a request never waits for the log
+ */
+@Slf4j
+public class AccessLog implements AutoCloseable {
+
+    /** Request attribute holding the System.nanoTime() at which the request started */
+    public static final String START_ATTRIBUTE = "accessLog.start";
+    /** Request attribute holding the matched route pattern, set by the route wrapper */
+    public static final String ROUTE_ATTRIBUTE = "accessLog.route";
+
+    private static final Logger ACCESS = LoggerFactory.getLogger("access");
+    private static final String UNMATCHED = "unmatched";
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final double sampleRate;
+    private final int mask;
+    // Per-slot sequence (Vyukov bounded queue): slot i is free for position p when its sequence
+    // equals p, and holds a published entry for p when it equals p + 1
+    private final AtomicLongArray sequences;
+    private final String[] methods;
+    private final String[] routes;
+    private final int[] statuses;
+    private final long[] latencies;
+    private final long[] sizes;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public AccessLog(int capacity, double sampleRate) {
+        if (capacity <= 0 || sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Invalid access log settings");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        size = Math.max(2, size);
+        this.sampleRate = sampleRate;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.methods = new String[size];
+        this.routes = new String[size];
+        this.statuses = new int[size];
+        this.latencies = new long[size];
+        this.sizes = new long[size];
+
+        this.writer = new Thread(this::drainLoop, "access-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Access log enabled with buffer of {} entries and sample rate {}", size, sampleRate);
+    }
+
+    /**
+     * Before filter, registered first so the latency covers every other filter
+     */
+    public void start(Request request, Response response) {
+        request.raw().setAttribute(START_ATTRIBUTE, System.nanoTime());
+    }
+
+    /**
+     * After filter, registered after the filter that writes the body so the byte count is final
+     */
+    public void after(Request request, Response response) {
+        record(request, response);
+    }
+
+    /**
+     * Queue the line for this request; never blocks
+     */
+    public void record(Request request, Response response) {
+        Object start = request.raw().getAttribute(START_ATTRIBUTE);
+        long latency = start instanceof Long ? System.nanoTime() - (Long) start : -1;
+        String route = (String) request.raw().getAttribute(ROUTE_ATTRIBUTE);
+        // After filters run before Spark answers 404 for an unmatched path
+        int status = route == null && response.body() == null ? 404 : response.raw().getStatus();
+
+        if (status < 400 && sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            sampledOut.increment();
+            return;
+        }
+        // A request rejected by a before filter never reached its route, the path stands in for it
+        String logged = route != null ? route : status == 404 ? UNMATCHED : request.pathInfo();
+        offer(request.requestMethod(), logged, status, latency, bytesWritten(response));
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getSampledOut() {
+        return sampledOut.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Stop the writer after it flushed what is already queued
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void offer(String method, String route, int status, long latency, long bytes) {
+        long position = tail.get();
+        int slot;
+        while (true) {
+            slot = (int) position & mask;
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // The writer has not freed this slot yet: the buffer is full
+                dropped.increment();
+                return;
+            } else {
+                position = tail.get();
+            }
+        }
+        methods[slot] = method;
+        routes[slot] = route;
+        statuses[slot] = status;
+        latencies[slot] = latency;
+        sizes[slot] = bytes;
+        // Volatile write publishes the plain fields above to the writer thread
+        sequences.set(slot, position + 1);
+    }
+
+    private void drainLoop() {
+        StringBuilder line = new StringBuilder(128);
+        while (true) {
+            boolean idle = true;
+            int slot = (int) head & mask;
+            while (sequences.get(slot) == head + 1) {
+                idle = false;
+                line.setLength(0);
+                line.append("method=").append(methods[slot])
+                        .append(" route=").append(routes[slot])
+                        .append(" status=").append(statuses[slot])
+                        .append(" duration_us=").append(latencies[slot] < 0 ? -1 : latencies[slot] / 1_000)
+                        .append(" bytes=").append(sizes[slot]);
+                methods[slot] = null;
+                routes[slot] = null;
+                // Hand the slot back to producers for the position one lap ahead
+                sequences.set(slot, head + mask + 1);
+                head++;
+                slot = (int) head & mask;
+                try {
+                    ACCESS.info(line.toString());
+                    written.increment();
+                } catch (RuntimeException e) {
+                    log.warn("Access log write failed: {}", e.getMessage());
+                }
+            }
+            if (idle) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Bytes sent on the wire: Jetty's own count, so compressed and streamed bodies are exact
+     * Falls back to the rendered body for responses Spark has not written yet (error handlers)
+     */
+    private static long bytesWritten(Response response) {
+        ServletResponse raw = response.raw();
+        while (raw instanceof ServletResponseWrapper) {
+            raw = ((ServletResponseWrapper) raw).getResponse();
+        }
+        if (raw instanceof org.eclipse.jetty.server.Response) {
+            HttpOutput output = ((org.eclipse.jetty.server.Response) raw).getHttpOutput();
+            if (output.getWritten() > 0) {
+                return output.getWritten();
+            }
+        }
+        // Error bodies are plain ASCII, characters are bytes
+        String body = response.body();
+        return body != null ? body.length() : 0;
+    }
+}
@@ -0,0 +1,120 @@
+package org.technoready.web;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptive Concurrency Limiter
+ * Caps in-flight requests with a limit that follows observed latency (gradient algorithm):
+ * while recent latency stays near the long-term baseline the limit grows by about sqrt(limit),
+ * when latency rises or requests queue inside the Hikari pool the limit shrinks proportionally
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SHORT_RTT_WEIGHT = 0.2;
+    private static final double LONG_RTT_WEIGHT = 0.01;
+    private static final double SMOOTHING = 0.2;
+    private static final double TOLERANCE = 1.5;
+
+    @Getter
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final HikariPoolMXBean pool;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(String name, int minLimit, int maxLimit, HikariPoolMXBean pool) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limits for " + name);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.pool = pool;
+        this.estimatedLimit = Math.max(minLimit, maxLimit / 4.0);
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Take a slot if the current limit allows it; every successful call must be paired with release
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Return the slot and feed the request latency into the limit estimate
+     */
+    public void release(long rttNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        update(rttNanos, inFlightBefore);
+    }
+
+    private synchronized void update(long rttNanos, int inFlightBefore) {
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) * SHORT_RTT_WEIGHT;
+        longRttNanos += (rttNanos - longRttNanos) * LONG_RTT_WEIGHT;
+
+        // Let the baseline recover quickly once latency drops back down
+        if (longRttNanos > shortRttNanos * 2) {
+            longRttNanos = shortRttNanos * 1.1;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / shortRttNanos));
+
+        // Requests waiting on a connection mean the database is the bottleneck
+        if (pool != null) {
+            int waiting = pool.getThreadsAwaitingConnection();
+            if (waiting > 0) {
+                int total = Math.max(1, pool.getTotalConnections());
+                gradient = Math.min(gradient, Math.max(0.5, 1.0 - (double) waiting / (waiting + total)));
+            }
+        }
+
+        // Do not grow the limit when traffic is not using it
+        if (gradient >= 1.0 && inFlightBefore < estimatedLimit / 2) {
+            return;
+        }
+
+        double queueSize = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueSize;
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,29 @@
+package org.technoready.web;
+
+import spark.Request;
+
+/**
+ * Client Identity
+ * Stable key for the caller of a request: its API key when one is sent, its remote address otherwise
+ * Forwarding headers are not trusted, they are set by the client
+ */
+public final class ClientIdentity {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    private ClientIdentity() {
+    }
+
+    public static String of(Request request) {
+        String apiKey = apiKey(request);
+        return apiKey != null ? "key:" + apiKey : "ip:" + request.ip();
+    }
+
+    /**
+     * The trimmed X-API-Key header, null when absent or blank; not authenticated
+     */
+    public static String apiKey(Request request) {
+        String apiKey = request.headers(API_KEY_HEADER);
+        return apiKey != null && !apiKey.isBlank() ? apiKey.trim() : null;
+    }
+}
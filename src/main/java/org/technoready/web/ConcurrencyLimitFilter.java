@@ -0,0 +1,85 @@
+package org.technoready.web;
+
+import com.google.gson.Gson;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.technoready.dto.response.ApiResponse;
+import spark.Request;
+import spark.Response;
+
+import static spark.Spark.halt;
+
+/**
+ * Concurrency Limit Filter
+ * Load shedding in front of the connection pool: a before filter takes a slot from the read
+ * or write limiter and fails fast with 503 + Retry-After when none is free, so overload
+ * shows up as quick rejections instead of requests queueing inside Hikari until they time out
+ */
+@Slf4j
+public class ConcurrencyLimitFilter {
+
+    private static final String LIMITER_ATTRIBUTE = "concurrencyLimiter";
+    private static final String START_ATTRIBUTE = "concurrencyLimiterStart";
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    @Getter
+    private final AdaptiveConcurrencyLimiter readLimiter;
+    @Getter
+    private final AdaptiveConcurrencyLimiter writeLimiter;
+    private final Gson gson;
+    private final AccessLog accessLog;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter readLimiter,
+                                  AdaptiveConcurrencyLimiter writeLimiter,
+                                  Gson gson,
+                                  AccessLog accessLog) {
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.gson = gson;
+        this.accessLog = accessLog;
+    }
+
+    public void before(Request request, Response response) {
+        AdaptiveConcurrencyLimiter limiter = isWrite(request.requestMethod()) ? writeLimiter : readLimiter;
+
+        if (!limiter.tryAcquire()) {
+            log.warn("Shedding {} {} - {} limit {} reached", request.requestMethod(), request.pathInfo(),
+                    limiter.getName(), limiter.getLimit());
+            response.header("Retry-After", RETRY_AFTER_SECONDS);
+            reject(request, response, 503, "Server is overloaded, retry later");
+        }
+
+        request.attribute(LIMITER_ATTRIBUTE, limiter);
+        request.attribute(START_ATTRIBUTE, System.nanoTime());
+    }
+
+    /**
+     * Release the slot taken in {@link #before}; safe to call more than once per request
+     */
+    public void after(Request request, Response response) {
+        AdaptiveConcurrencyLimiter limiter = request.attribute(LIMITER_ATTRIBUTE);
+        if (limiter == null) {
+            return;
+        }
+        long start = request.attribute(START_ATTRIBUTE);
+        request.raw().removeAttribute(LIMITER_ATTRIBUTE);
+        limiter.release(System.nanoTime() - start);
+    }
+
+    static boolean isWrite(String method) {
+        return !("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method));
+    }
+
+    /**
+     * halt() skips the after filters, so the access log line is recorded here
+     */
+    private void reject(Request request, Response response, int status, String message) {
+        String body = gson.toJson(ApiResponse.error(message));
+        if (accessLog != null) {
+            response.status(status);
+            response.body(body);
+            accessLog.record(request, response);
+        }
+        halt(status, body);
+    }
+}
@@ -0,0 +1,96 @@
+package org.technoready.web;
+
+import org.technoready.entity.User;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ETags
+ * Builds and compares entity tags for the user resources:
+ * - a single user is tagged "id-updatedAt" with updated_at in epoch microseconds (hex)
+ * - a list is tagged with the users table version and a hash of the query that produced it
+ * A "--gzip" style suffix added by the response encoder is ignored when comparing
+ */
+public final class ETags {
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+
+    private ETags() {
+    }
+
+    public static String forUser(User user) {
+        return "\"" + user.getId() + "-" + Long.toHexString(toEpochMicros(user.getUpdatedAt())) + "\"";
+    }
+
+    public static String forList(long version, String query) {
+        return "\"v" + Long.toHexString(version) + "-" + Integer.toHexString(query.hashCode()) + "\"";
+    }
+
+    /**
+     * If-None-Match evaluation, weak comparison as required by RFC 9110
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag)) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (opaqueTag(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Versions listed in an If-Match header for the given user id
+     * Weak tags and tags of other ids never match; "*" yields null, meaning any existing version
+     */
+    public static List<LocalDateTime> parseUserVersions(String ifMatch, long id) {
+        List<LocalDateTime> versions = new ArrayList<>();
+        String prefix = id + "-";
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag)) {
+                return null;
+            }
+            String opaque = opaqueTag(tag);
+            if (tag.startsWith("W/") || !opaque.startsWith(prefix)) {
+                continue;
+            }
+            try {
+                versions.add(fromEpochMicros(Long.parseUnsignedLong(opaque.substring(prefix.length()), 16)));
+            } catch (NumberFormatException e) {
+                // Not one of our tags, it simply cannot match
+            }
+        }
+        return versions;
+    }
+
+    private static String opaqueTag(String tag) {
+        int start = tag.startsWith("\"") ? 1 : 0;
+        int end = tag.endsWith("\"") && tag.length() > start ? tag.length() - 1 : tag.length();
+        String opaque = tag.substring(start, end);
+        int suffix = opaque.indexOf("--");
+        return suffix >= 0 ? opaque.substring(0, suffix) : opaque;
+    }
+
+    private static long toEpochMicros(LocalDateTime value) {
+        return value.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + value.getNano() / 1000;
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                (int) Math.floorMod(micros, MICROS_PER_SECOND) * 1000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,29 @@
+package org.technoready.web;
+
+import lombok.RequiredArgsConstructor;
+import spark.embeddedserver.EmbeddedServer;
+import spark.embeddedserver.EmbeddedServerFactory;
+import spark.embeddedserver.jetty.JettyHandler;
+import spark.http.matching.MatcherFilter;
+import spark.route.Routes;
+import spark.staticfiles.StaticFilesConfiguration;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Executor Jetty Factory
+ * Builds Spark's usual matcher/handler chain on top of {@link ExecutorJettyServer}
+ */
+@RequiredArgsConstructor
+public class ExecutorJettyFactory implements EmbeddedServerFactory {
+
+    private final ExecutorService executor;
+
+    @Override
+    public EmbeddedServer create(Routes routeMatcher, StaticFilesConfiguration staticFilesConfiguration,
+                                 boolean hasMultipleHandler) {
+        MatcherFilter matcherFilter = new MatcherFilter(routeMatcher, staticFilesConfiguration, false, hasMultipleHandler);
+        matcherFilter.init(null);
+        return new ExecutorJettyServer(new JettyHandler(matcherFilter), executor);
+    }
+}
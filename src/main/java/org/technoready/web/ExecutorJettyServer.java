@@ -0,0 +1,81 @@
+package org.technoready.web;
+
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.thread.ExecutorThreadPool;
+import spark.embeddedserver.EmbeddedServer;
+import spark.embeddedserver.jetty.SocketConnectorFactory;
+import spark.embeddedserver.jetty.websocket.WebSocketHandlerWrapper;
+import spark.ssl.SslStores;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Executor Jetty Server
+ * Embedded Jetty that dispatches requests on a caller-supplied ExecutorService
+ * instead of Spark's fixed QueuedThreadPool; Spark's thread pool settings are ignored
+ */
+@Slf4j
+public class ExecutorJettyServer implements EmbeddedServer {
+
+    private final Handler handler;
+    private final ExecutorService executor;
+    private Server server;
+
+    public ExecutorJettyServer(Handler handler, ExecutorService executor) {
+        this.handler = handler;
+        this.executor = executor;
+    }
+
+    @Override
+    public void configureWebSockets(Map<String, WebSocketHandlerWrapper> webSocketHandlers,
+                                    Optional<Integer> webSocketIdleTimeoutMillis) {
+        // No WebSocket routes are mapped in this application
+        if (webSocketHandlers != null && !webSocketHandlers.isEmpty()) {
+            throw new UnsupportedOperationException("WebSockets are not supported by ExecutorJettyServer");
+        }
+    }
+
+    @Override
+    public int ignite(String host, int port, SslStores sslStores, CountDownLatch latch,
+                      int maxThreads, int minThreads, int threadIdleTimeoutMillis) {
+        server = new Server(new ExecutorThreadPool(executor));
+
+        ServerConnector connector = sslStores == null
+                ? SocketConnectorFactory.createSocketConnector(server, host, port)
+                : SocketConnectorFactory.createSecureSocketConnector(server, host, port, sslStores);
+        server.setConnectors(new Connector[]{connector});
+        server.setHandler(handler);
+
+        try {
+            server.start();
+            log.info("Jetty listening on {}:{} with executor {}", host, connector.getLocalPort(),
+                    executor.getClass().getSimpleName());
+            latch.countDown();
+            server.join();
+        } catch (Exception e) {
+            log.error("Failed to start Jetty", e);
+            System.exit(100);
+        }
+        return connector.getLocalPort();
+    }
+
+    @Override
+    public void extinguish() {
+        try {
+            if (server != null) {
+                server.stop();
+            }
+        } catch (Exception e) {
+            log.error("Failed to stop Jetty", e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.technoready.web;
+
+import com.google.gson.Gson;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.technoready.dto.response.ApiResponse;
+import spark.Request;
+import spark.Response;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static spark.Spark.halt;
+
+/**
+ * Rate Limit Filter
+ * Per-client limits in front of everything else: a before filter takes a token from the client's
+ * read or write bucket (remote address, plus X-API-Key when sent, see {@link RateLimiter}) and answers 429 + Retry-After when it is empty,
+ * so one integration flooding the API cannot take the connection pool from the others
+ * Every response carries RateLimit-Limit, RateLimit-Remaining and RateLimit-Reset (seconds until the bucket is full)
+ */
+@Slf4j
+public class RateLimitFilter implements AutoCloseable {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    @Getter
+    private final RateLimiter readLimiter;
+    @Getter
+    private final RateLimiter writeLimiter;
+    private final Gson gson;
+    private final AccessLog accessLog;
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * Off while the startup warmup replays requests from this node
+     */
+    @Setter
+    private volatile boolean enforced = true;
+
+    public RateLimitFilter(RateLimiter readLimiter, RateLimiter writeLimiter, long sweepMillis, Gson gson,
+                           AccessLog accessLog) {
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.gson = gson;
+        this.accessLog = accessLog;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(() -> {
+            readLimiter.sweep();
+            writeLimiter.sweep();
+        }, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void before(Request request, Response response) {
+        if (!enforced) {
+            return;
+        }
+        RateLimiter limiter = ConcurrencyLimitFilter.isWrite(request.requestMethod()) ? writeLimiter : readLimiter;
+        long ahead = limiter.acquire(request.ip(), ClientIdentity.apiKey(request));
+
+        response.header("RateLimit-Limit", Integer.toString(limiter.getBurst()));
+        if (ahead < 0) {
+            long retryAfter = Math.max(1, ceilSeconds(-ahead));
+            log.debug("Rate limited {} {} - {} limit for {}", request.requestMethod(), request.pathInfo(),
+                    limiter.getName(), request.ip());
+            response.header("RateLimit-Remaining", "0");
+            response.header("RateLimit-Reset", Long.toString(retryAfter));
+            response.header("Retry-After", Long.toString(retryAfter));
+            reject(request, response, 429, "Too many requests, retry later");
+        }
+        response.header("RateLimit-Remaining", Integer.toString(limiter.remaining(ahead)));
+        response.header("RateLimit-Reset", Long.toString(ceilSeconds(ahead)));
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    private static long ceilSeconds(long nanos) {
+        return (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+    }
+
+    /**
+     * halt() skips the after filters, so the access log line is recorded here
+     */
+    private void reject(Request request, Response response, int status, String message) {
+        String body = gson.toJson(ApiResponse.error(message));
+        if (accessLog != null) {
+            response.status(status);
+            response.body(body);
+            accessLog.record(request, response);
+        }
+        halt(status, body);
+    }
+}
@@ -0,0 +1,151 @@
+package org.technoready.web;
+
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate Limiter
+ * Per-client token buckets stored as GCRA state: one AtomicLong per client holding the theoretical
+ * arrival time (TAT) of its next request, so a decision is one map lookup and one CAS, no lock and
+ * no refill timer. A client may run ratePerSecond requests per second with bursts of up to burst
+ * - a client is its remote address, or (address, API key) when a key is sent; API keys are not
+ *   authenticated, so one address holds at most maxKeysPerIp keyed buckets and further keys share
+ *   the address bucket, a fresh key per request buys nothing
+ * - buckets live in a ConcurrentHashMap (lock-free reads, per-bin locking only when a client is added)
+ * - a bucket whose TAT has passed is full and equal to a fresh one, {@link #sweep} drops those,
+ *   so memory follows the clients active within the last burst window
+ * - past maxClients, keyed requests without a bucket fall back to their address bucket
+ */
+public class RateLimiter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    @Getter
+    private final String name;
+    @Getter
+    private final int burst;
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final int maxClients;
+    private final int maxKeysPerIp;
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> keysPerIp = new ConcurrentHashMap<>();
+    private final LongAdder limited = new LongAdder();
+
+    public RateLimiter(String name, double ratePerSecond, int burst, int maxClients, int maxKeysPerIp) {
+        if (ratePerSecond <= 0 || burst <= 0 || maxClients <= 0 || maxKeysPerIp < 0) {
+            throw new IllegalArgumentException("Invalid rate limit for " + name);
+        }
+        this.name = name;
+        this.burst = burst;
+        this.intervalNanos = Math.max(1, (long) (NANOS_PER_SECOND / ratePerSecond));
+        this.capacityNanos = intervalNanos * burst;
+        this.maxClients = maxClients;
+        this.maxKeysPerIp = maxKeysPerIp;
+    }
+
+    /**
+     * Take one token for the client (apiKey may be null)
+     * Returns the nanoseconds until its bucket is full again (>= 0) when the request is allowed,
+     * or minus the nanoseconds until a token is available (< 0) when it is limited
+     */
+    public long acquire(String ip, String apiKey) {
+        Bucket bucket = bucket(ip, apiKey);
+        long now = System.nanoTime();
+        while (true) {
+            long tat = bucket.get();
+            long ahead = (tat - now > 0 ? tat - now : 0) + intervalNanos;
+            if (ahead > capacityNanos) {
+                limited.increment();
+                return -(ahead - capacityNanos);
+            }
+            if (bucket.compareAndSet(tat, now + ahead)) {
+                return ahead;
+            }
+        }
+    }
+
+    /**
+     * Tokens left after an allowed request, from the value {@link #acquire} returned
+     */
+    public int remaining(long ahead) {
+        return (int) ((capacityNanos - ahead) / intervalNanos);
+    }
+
+    /**
+     * Drop full buckets; a request racing with the removal still updates the dropped bucket,
+     * so a client can gain at most one extra token per sweep
+     */
+    public void sweep() {
+        long now = System.nanoTime();
+        for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+            Bucket bucket = entry.getValue();
+            if (bucket.get() - now <= 0 && buckets.remove(entry.getKey(), bucket) && bucket.keyed) {
+                releaseKey(bucket.ip);
+            }
+        }
+    }
+
+    public int getClientCount() {
+        return buckets.size();
+    }
+
+    public long getLimited() {
+        return limited.sum();
+    }
+
+    private Bucket bucket(String ip, String apiKey) {
+        if (apiKey == null) {
+            return addressBucket(ip);
+        }
+        String client = ip + '|' + apiKey;
+        Bucket bucket = buckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxClients) {
+            return addressBucket(ip);
+        }
+        if (keysPerIp.merge(ip, 1, Integer::sum) > maxKeysPerIp) {
+            releaseKey(ip);
+            return addressBucket(ip);
+        }
+        Bucket created = new Bucket(ip, true, System.nanoTime());
+        Bucket existing = buckets.putIfAbsent(client, created);
+        if (existing != null) {
+            releaseKey(ip);
+            return existing;
+        }
+        return created;
+    }
+
+    private Bucket addressBucket(String ip) {
+        Bucket bucket = buckets.get(ip);
+        return bucket != null ? bucket : buckets.computeIfAbsent(ip, k -> new Bucket(ip, false, System.nanoTime()));
+    }
+
+    private void releaseKey(String ip) {
+        keysPerIp.computeIfPresent(ip, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * TAT of one client, remembering the address a keyed bucket counts against
+     */
+    private static final class Bucket extends AtomicLong {
+        private static final long serialVersionUID = 1L;
+
+        private final String ip;
+        private final boolean keyed;
+
+        private Bucket(String ip, boolean keyed, long tat) {
+            super(tat);
+            this.ip = ip;
+            this.keyed = keyed;
+        }
+    }
+}
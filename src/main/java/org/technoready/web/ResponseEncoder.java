@@ -0,0 +1,183 @@
+package org.technoready.web;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import lombok.extern.slf4j.Slf4j;
+import spark.Request;
+import spark.Response;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response Encoder
+ * Negotiated response encoding applied as the last after filter:
+ * - JSON is compact unless the client asks for ?pretty or X-Pretty-Print: true
+ * - gzip or deflate is chosen from Accept-Encoding for bodies of at least minCompressBytes
+ * Streaming handlers obtain an already encoded stream through {@link #openStream}
+ */
+@Slf4j
+public class ResponseEncoder {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    private static final String PRETTY_PARAM = "pretty";
+    private static final String PRETTY_HEADER = "X-Pretty-Print";
+
+    private final Gson prettyGson;
+    private final boolean compressionEnabled;
+    private final int minCompressBytes;
+
+    public ResponseEncoder(Gson prettyGson, boolean compressionEnabled, int minCompressBytes) {
+        this.prettyGson = prettyGson;
+        this.compressionEnabled = compressionEnabled;
+        this.minCompressBytes = minCompressBytes;
+    }
+
+    /**
+     * Re-indent, compress and write the rendered body; responses already written to the socket are left alone
+     */
+    public void after(Request request, Response response) throws IOException {
+        HttpServletResponse raw = response.raw();
+        String body = response.body();
+        if (raw.isCommitted() || body == null || body.isEmpty()) {
+            return;
+        }
+
+        String type = response.type();
+        if (isPrettyRequested(request) && type != null && type.startsWith("application/json")) {
+            body = prettyGson.toJson(JsonParser.parseString(body));
+            response.body(body);
+        }
+
+        String encoding = negotiate(request.headers("Accept-Encoding"));
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        raw.addHeader("Vary", "Accept-Encoding");
+        // Tagged by the negotiated encoding even when the body is too small to compress, so a 304
+        // can carry the same validator without knowing the body
+        if (encoding != null) {
+            tagEncoding(raw, encoding);
+        }
+
+        // Writing and flushing commits the response, so Spark skips its own serialization
+        // and the byte count is final for the access log
+        if (encoding == null || bytes.length < minCompressBytes) {
+            raw.setContentLength(bytes.length);
+            raw.getOutputStream().write(bytes);
+            raw.flushBuffer();
+            return;
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (OutputStream out = wrap(compressed, encoding)) {
+            out.write(bytes);
+        }
+
+        raw.setHeader("Content-Encoding", encoding);
+        raw.setContentLength(compressed.size());
+        compressed.writeTo(raw.getOutputStream());
+        raw.flushBuffer();
+    }
+
+    public boolean isPrettyRequested(Request request) {
+        String param = request.queryParams(PRETTY_PARAM);
+        if (param != null) {
+            return !"false".equalsIgnoreCase(param);
+        }
+        return request.queryParams().contains(PRETTY_PARAM)
+                || "true".equalsIgnoreCase(request.headers(PRETTY_HEADER));
+    }
+
+    /**
+     * Output stream for handlers that write the body themselves, compressed when the client accepts it
+     * The caller must close the returned stream to finish the encoding
+     */
+    public OutputStream openStream(Request request, Response response) throws IOException {
+        HttpServletResponse raw = response.raw();
+        raw.addHeader("Vary", "Accept-Encoding");
+        String encoding = negotiate(request.headers("Accept-Encoding"));
+        if (encoding == null) {
+            return raw.getOutputStream();
+        }
+        raw.setHeader("Content-Encoding", encoding);
+        tagEncoding(raw, encoding);
+        return wrap(raw.getOutputStream(), encoding);
+    }
+
+    /**
+     * A 304 has no body and skips {@link #after}; give it the ETag and Vary the 200 would have carried
+     */
+    public void tagNotModified(Request request, Response response) {
+        HttpServletResponse raw = response.raw();
+        raw.addHeader("Vary", "Accept-Encoding");
+        String encoding = negotiate(request.headers("Accept-Encoding"));
+        if (encoding != null) {
+            tagEncoding(raw, encoding);
+        }
+    }
+
+    /**
+     * A compressed body is a different representation, so its strong ETag gets an encoding suffix
+     */
+    private static void tagEncoding(HttpServletResponse raw, String encoding) {
+        String etag = raw.getHeader("ETag");
+        if (etag != null && etag.endsWith("\"")) {
+            raw.setHeader("ETag", etag.substring(0, etag.length() - 1) + "--" + encoding + "\"");
+        }
+    }
+
+    /**
+     * Pick gzip or deflate from an Accept-Encoding header, honouring q-values; null means identity
+     */
+    String negotiate(String acceptEncoding) {
+        if (!compressionEnabled || acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return null;
+        }
+        double gzipQuality = -1;
+        double deflateQuality = -1;
+        double wildcardQuality = -1;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim().toLowerCase();
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (GZIP.equals(coding) || "x-gzip".equals(coding)) {
+                gzipQuality = quality;
+            } else if (DEFLATE.equals(coding)) {
+                deflateQuality = quality;
+            } else if ("*".equals(coding)) {
+                wildcardQuality = quality;
+            }
+        }
+        if (gzipQuality < 0) {
+            gzipQuality = wildcardQuality;
+        }
+        if (deflateQuality < 0) {
+            deflateQuality = wildcardQuality;
+        }
+        if (gzipQuality <= 0 && deflateQuality <= 0) {
+            return null;
+        }
+        // gzip wins ties, it is the better supported of the two
+        return gzipQuality >= deflateQuality ? GZIP : DEFLATE;
+    }
+
+    private static OutputStream wrap(OutputStream out, String encoding) throws IOException {
+        return GZIP.equals(encoding) ? new GZIPOutputStream(out, 8192) : new DeflaterOutputStream(out);
+    }
+}
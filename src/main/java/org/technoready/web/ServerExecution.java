@@ -0,0 +1,79 @@
+package org.technoready.web;
+
+import lombok.extern.slf4j.Slf4j;
+import spark.Service;
+import spark.Spark;
+import spark.embeddedserver.EmbeddedServers;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static spark.Spark.threadPool;
+
+/**
+ * Server Execution
+ * Selects how Jetty runs the request handlers, must be applied before the first route is mapped
+ * - platform: bounded pool of platform threads (Spark's QueuedThreadPool)
+ * - virtual: one virtual thread per request when the JVM supports them (Java 21+),
+ *   otherwise falls back to the bounded platform pool
+ */
+@Slf4j
+public class ServerExecution {
+
+    public static final String PLATFORM = "platform";
+    public static final String VIRTUAL = "virtual";
+
+    private static final String EXECUTOR_JETTY = "executor-jetty";
+
+    public static void configure(String mode, int maxThreads) {
+        if (VIRTUAL.equalsIgnoreCase(mode)) {
+            Optional<ExecutorService> virtualExecutor = newVirtualThreadExecutor();
+            if (virtualExecutor.isPresent()) {
+                EmbeddedServers.add(EXECUTOR_JETTY, new ExecutorJettyFactory(virtualExecutor.get()));
+                useEmbeddedServer(EXECUTOR_JETTY);
+                log.info("Request handlers run on virtual threads");
+                return;
+            }
+            log.warn("Virtual threads are not supported by this JVM ({}), falling back to a platform pool",
+                    Runtime.version());
+        } else if (!PLATFORM.equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("Unknown server execution mode: " + mode);
+        }
+
+        threadPool(maxThreads);
+        log.info("Request handlers run on a platform thread pool of at most {} threads", maxThreads);
+    }
+
+    /**
+     * Spark 2.5 re-registers its own Jetty factory under the default identifier on startup
+     * and has no public setter for the identifier (added in 2.6), so it is set reflectively
+     */
+    private static void useEmbeddedServer(Object identifier) {
+        try {
+            Method getInstance = Spark.class.getDeclaredMethod("getInstance");
+            getInstance.setAccessible(true);
+            Service service = (Service) getInstance.invoke(null);
+
+            Field serverIdentifier = Service.class.getDeclaredField("embeddedServerIdentifier");
+            serverIdentifier.setAccessible(true);
+            serverIdentifier.set(service, identifier);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to select embedded server " + identifier, e);
+        }
+    }
+
+    /**
+     * Looked up reflectively so the project keeps compiling for Java 17
+     */
+    static Optional<ExecutorService> newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return Optional.of((ExecutorService) factory.invoke(null));
+        } catch (ReflectiveOperationException e) {
+            return Optional.empty();
+        }
+    }
+}
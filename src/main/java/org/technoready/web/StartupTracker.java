@@ -0,0 +1,101 @@
+package org.technoready.web;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Startup Tracker
+ * Times the startup phases, runs the independent ones in parallel and holds the readiness flag
+ * behind GET /health/ready; every phase duration is logged and reported by the health endpoint
+ */
+@Slf4j
+public class StartupTracker {
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> phaseMillis = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final AtomicInteger threads = new AtomicInteger();
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "startup-" + threads.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean ready;
+    private volatile long startupMillis;
+
+    @FunctionalInterface
+    public interface Phase {
+        void run() throws Exception;
+    }
+
+    public <T> T time(String phase, Callable<T> work) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return work.call();
+        } finally {
+            record(phase, start);
+        }
+    }
+
+    public void time(String phase, Phase work) throws Exception {
+        time(phase, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Start a phase on a startup thread; join() rethrows its failure wrapped in a CompletionException
+     */
+    public <T> CompletableFuture<T> async(String phase, Callable<T> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return time(phase, work);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    public CompletableFuture<Void> async(String phase, Phase work) {
+        return async(phase, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public void markReady() {
+        startupMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        ready = true;
+        executor.shutdown();
+        log.info("Ready to serve after {} ms, phases (ms): {}", startupMillis, getPhaseMillis());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getStartupMillis() {
+        return startupMillis;
+    }
+
+    public Map<String, Long> getPhaseMillis() {
+        synchronized (phaseMillis) {
+            return new LinkedHashMap<>(phaseMillis);
+        }
+    }
+
+    private void record(String phase, long start) {
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        phaseMillis.put(phase, millis);
+        log.info("Startup phase '{}' took {} ms", phase, millis);
+    }
+}
@@ -0,0 +1,114 @@
+package org.technoready.web;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Startup Warmup
+ * Replays read-only requests against the node's own port before it reports ready, so the JIT has
+ * compiled the Jetty, routing, controller, mapper and Gson paths when real traffic arrives
+ * Requests never write: lists, lookups (hit, miss, revalidation), search and a create rejected by validation
+ * Best effort, a failure only ends the warmup early
+ */
+@Slf4j
+public final class StartupWarmup {
+
+    private static final String INVALID_USER = "{\"username\":\"\",\"email\":\"warmup\",\"fullName\":\"\"}";
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+    private final String baseUrl;
+    private final int iterations;
+    private final long maxMillis;
+
+    public StartupWarmup(int port, int iterations, long maxMillis) {
+        this.baseUrl = "http://127.0.0.1:" + port;
+        this.iterations = iterations;
+        this.maxMillis = maxMillis;
+    }
+
+    public void run() {
+        long start = System.nanoTime();
+        long deadline = start + maxMillis * 1_000_000;
+        int sent = 0;
+        int failed = 0;
+        try {
+            List<String> ids = firstPageIds();
+            for (int i = 0; i < iterations && System.nanoTime() < deadline; i++) {
+                String id = ids.isEmpty() ? "1" : ids.get(i % ids.size());
+                HttpResponse<String> user = send(get("/users/" + id));
+                String etag = user.headers().firstValue("ETag").orElse(null);
+                List<HttpRequest> requests = new ArrayList<>(6);
+                requests.add(HttpRequest.newBuilder(URI.create(baseUrl + "/users?limit=20"))
+                        .header("Accept-Encoding", "gzip")
+                        .header("User-Agent", "startup-warmup")
+                        .build());
+                requests.add(get("/users?limit=5&fields=id,username&sort=-created_at"));
+                requests.add(get("/users/search?q=" + (char) ('a' + i % 26)));
+                requests.add(get("/users/0"));
+                requests.add(HttpRequest.newBuilder(URI.create(baseUrl + "/users"))
+                        .header("Content-Type", "application/json")
+                        .header("User-Agent", "startup-warmup")
+                        .POST(HttpRequest.BodyPublishers.ofString(INVALID_USER))
+                        .build());
+                if (etag != null) {
+                    requests.add(HttpRequest.newBuilder(URI.create(baseUrl + "/users/" + id))
+                            .header("If-None-Match", etag)
+                            .header("User-Agent", "startup-warmup")
+                            .build());
+                }
+                sent += 1 + requests.size();
+                if (user.statusCode() >= 500) {
+                    failed++;
+                }
+                for (HttpRequest request : requests) {
+                    if (send(request).statusCode() >= 500) {
+                        failed++;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Startup warmup stopped early: {}", e.toString());
+        }
+        log.info("Startup warmup sent {} requests ({} server errors) in {} ms",
+                sent, failed, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private List<String> firstPageIds() throws Exception {
+        List<String> ids = new ArrayList<>();
+        HttpResponse<String> page = send(get("/users?limit=20&fields=id"));
+        if (page.statusCode() != 200) {
+            return ids;
+        }
+        JsonElement data = JsonParser.parseString(page.body()).getAsJsonObject().get("data");
+        if (data != null && data.isJsonArray()) {
+            for (JsonElement user : data.getAsJsonArray()) {
+                JsonObject object = user.getAsJsonObject();
+                ids.add(object.get("id").getAsString());
+            }
+        }
+        return ids;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("User-Agent", "startup-warmup")
+                .build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
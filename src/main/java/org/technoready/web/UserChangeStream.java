@@ -0,0 +1,359 @@
+package org.technoready.web;
+
+import com.google.gson.Gson;
+import lombok.extern.slf4j.Slf4j;
+import org.technoready.dto.response.UserChange;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * User Change Stream
+ * Fans committed user changes out to Server-Sent Events subscribers (GET /users/changes)
+ * - every event gets the id "stream:sequence"; the last historySize events are kept so a client
+ *   reconnecting with Last-Event-ID (or ?since=) gets what it missed
+ * - an id from another stream (other node, restart, lost notifications) or older than the history
+ *   gets a "reset" event instead: the client reloads from GET /users and carries on
+ * - subscribers are written with non-blocking servlet I/O, no thread is parked per connection;
+ *   each has a bounded queue and is disconnected when it falls bufferSize events behind
+ */
+@Slf4j
+public class UserChangeStream implements AutoCloseable {
+
+    private static final byte[] HEARTBEAT = ": keepalive\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final long RETRY_MILLIS = 2000;
+
+    private final Gson gson;
+    private final int historySize;
+    private final int bufferSize;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeping;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder slowDisconnects = new LongAdder();
+
+    // Guarded by this, so sequence order, history order and queue order always agree
+    private final ArrayDeque<Event> history = new ArrayDeque<>();
+    private String streamId = newStreamId();
+    private long sequence;
+
+    public UserChangeStream(Gson gson, int historySize, int bufferSize, long heartbeatMillis) {
+        if (historySize < 0 || bufferSize <= 0 || heartbeatMillis <= 0) {
+            throw new IllegalArgumentException("Invalid change stream settings");
+        }
+        this.gson = gson;
+        this.historySize = historySize;
+        this.bufferSize = bufferSize;
+        this.housekeeping = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-changes-housekeeping");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeping.scheduleAtFixedRate(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        log.info("User change stream enabled with history of {} events and buffers of {}", historySize, bufferSize);
+    }
+
+    /**
+     * Number the change, keep it for resuming subscribers and queue it on every live one
+     */
+    public void publish(UserChange change) {
+        String data = gson.toJson(change);
+        synchronized (this) {
+            long next = ++sequence;
+            byte[] frame = frame(streamId + ":" + next, change.getType(), data);
+            if (historySize > 0) {
+                if (history.size() == historySize) {
+                    history.removeFirst();
+                }
+                history.addLast(new Event(next, frame));
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(frame);
+            }
+        }
+        published.increment();
+        drainAll();
+    }
+
+    /**
+     * Start a new stream after changes may have been missed, e.g. the database listener reconnected
+     * Every subscriber gets a "reset" event, ids of the old stream can no longer be resumed
+     */
+    public void reset(String reason) {
+        synchronized (this) {
+            streamId = newStreamId();
+            sequence = 0;
+            history.clear();
+            byte[] frame = resetFrame(reason);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(frame);
+            }
+        }
+        log.warn("User change stream reset: {}", reason);
+        drainAll();
+    }
+
+    /**
+     * Turn the request into an event stream, resuming after lastEventId when it is given
+     * Headers are committed before going async, so Spark and the after filters leave the body alone
+     */
+    public void subscribe(HttpServletRequest request, HttpServletResponse response, String lastEventId)
+            throws IOException {
+        response.setStatus(200);
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        // Keeps reverse proxies from buffering the stream
+        response.setHeader("X-Accel-Buffering", "no");
+        response.flushBuffer();
+
+        AsyncContext async = request.startAsync();
+        async.setTimeout(0);
+        ServletOutputStream out = response.getOutputStream();
+        synchronized (this) {
+            List<byte[]> backlog = backlog(lastEventId);
+            Subscriber subscriber = new Subscriber(async, out, bufferSize + backlog.size() + 1);
+            subscriber.offer(("retry: " + RETRY_MILLIS + "\n\n").getBytes(StandardCharsets.UTF_8));
+            backlog.forEach(subscriber::offer);
+            subscribers.add(subscriber);
+            async.addListener(subscriber);
+            // The container answers with onWritePossible, which starts the first drain
+            out.setWriteListener(subscriber);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    public long getSlowDisconnects() {
+        return slowDisconnects.sum();
+    }
+
+    @Override
+    public void close() {
+        housekeeping.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.complete();
+        }
+    }
+
+    /**
+     * Frames owed to a (re)connecting client; must be called holding the lock
+     * A fresh client only learns the current position, so its first reconnect resumes from here
+     */
+    private List<byte[]> backlog(String lastEventId) {
+        List<byte[]> frames = new ArrayList<>();
+        if (lastEventId == null || lastEventId.isBlank()) {
+            frames.add(("id: " + streamId + ":" + sequence + "\n\n").getBytes(StandardCharsets.UTF_8));
+            return frames;
+        }
+        long since = parseSequence(lastEventId.trim());
+        long oldest = history.isEmpty() ? sequence + 1 : history.peekFirst().sequence;
+        if (since < 0 || since > sequence || since < oldest - 1) {
+            frames.add(resetFrame("cannot resume from " + lastEventId.trim()));
+            return frames;
+        }
+        for (Event event : history) {
+            if (event.sequence > since) {
+                frames.add(event.frame);
+            }
+        }
+        return frames;
+    }
+
+    /**
+     * Sequence of an id issued by the current stream, -1 for anything else
+     */
+    private long parseSequence(String eventId) {
+        int separator = eventId.lastIndexOf(':');
+        if (separator <= 0 || !eventId.substring(0, separator).equals(streamId)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private byte[] resetFrame(String reason) {
+        return frame(streamId + ":" + sequence, "reset", gson.toJson(new Reset(reason)));
+    }
+
+    private static byte[] frame(String id, String event, String data) {
+        return ("id: " + id + "\nevent: " + event + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String newStreamId() {
+        return Long.toHexString(UUID.randomUUID().getMostSignificantBits());
+    }
+
+    /**
+     * Comment lines keep idle connections open through proxies and reveal dead clients
+     */
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(HEARTBEAT);
+        }
+        drainAll();
+    }
+
+    private void drainAll() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.drain();
+        }
+    }
+
+    private static final class Event {
+        private final long sequence;
+        private final byte[] frame;
+
+        private Event(long sequence, byte[] frame) {
+            this.sequence = sequence;
+            this.frame = frame;
+        }
+    }
+
+    private static final class Reset {
+        private final String reason;
+
+        private Reset(String reason) {
+            this.reason = reason;
+        }
+    }
+
+    /**
+     * One connected client: a bounded queue of frames drained whenever the socket can take more
+     */
+    private final class Subscriber implements WriteListener, AsyncListener {
+        private final AsyncContext async;
+        private final ServletOutputStream out;
+        private final ArrayBlockingQueue<byte[]> queue;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Guarded by this
+        private boolean writable;
+        private boolean unflushed;
+
+        private Subscriber(AsyncContext async, ServletOutputStream out, int capacity) {
+            this.async = async;
+            this.out = out;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void offer(byte[] frame) {
+            if (!closed.get() && !queue.offer(frame)) {
+                slowDisconnects.increment();
+                log.debug("Disconnecting a change subscriber {} events behind", queue.size());
+                complete();
+            }
+        }
+
+        /**
+         * Write queued frames until the socket pushes back; the container calls onWritePossible
+         * once it can take more, so this never blocks the publishing thread
+         */
+        private synchronized void drain() {
+            if (!writable || closed.get()) {
+                return;
+            }
+            try {
+                while (out.isReady()) {
+                    byte[] frame = queue.poll();
+                    if (frame == null) {
+                        if (!unflushed) {
+                            return;
+                        }
+                        unflushed = false;
+                        out.flush();
+                        continue;
+                    }
+                    out.write(frame);
+                    unflushed = true;
+                }
+            } catch (IOException | RuntimeException e) {
+                log.debug("Change subscriber write failed: {}", e.getMessage());
+                complete();
+            }
+        }
+
+        /**
+         * Completion may flush the response, so it runs on the housekeeping thread
+         */
+        private void complete() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            subscribers.remove(this);
+            queue.clear();
+            try {
+                housekeeping.execute(this::completeAsync);
+            } catch (RuntimeException e) {
+                // Shutting down, the container closes the connection itself
+                completeAsync();
+            }
+        }
+
+        private void completeAsync() {
+            try {
+                async.complete();
+            } catch (RuntimeException e) {
+                // Already completed by the container after an error or disconnect
+            }
+        }
+
+        @Override
+        public void onWritePossible() {
+            synchronized (this) {
+                writable = true;
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            complete();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            complete();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            complete();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            complete();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,61 @@
+-- Version behind the list ETags: the sum of 16 slots. A transaction that changes users bumps the slot
+-- of its backend once, so concurrent writers rarely wait on the same row lock
+CREATE TABLE IF NOT EXISTS users_version_slots (
+    slot SMALLINT PRIMARY KEY,
+    version BIGINT NOT NULL
+    );
+
+INSERT INTO users_version_slots (slot, version)
+SELECT slot, 0 FROM generate_series(0, 15) AS slot
+ON CONFLICT (slot) DO NOTHING;
+
+-- Databases created from the former schema.sql carry a single-row users_version table; its value is
+-- kept so ETags handed out before the upgrade cannot match again
+DO $$
+BEGIN
+    IF to_regclass('users_version') IS NOT NULL THEN
+        DROP TRIGGER IF EXISTS users_version_bump ON users;
+        UPDATE users_version_slots SET version = version + (SELECT max(version) FROM users_version)
+            WHERE slot = 0;
+        DROP TABLE users_version;
+    END IF;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION bump_users_version() RETURNS trigger AS $$
+BEGIN
+    -- Statements that changed no row (ON CONFLICT DO NOTHING, an UPDATE matching nothing) keep the version
+    IF TG_OP <> 'TRUNCATE' THEN
+        IF NOT EXISTS (SELECT 1 FROM changed_rows) THEN
+            RETURN NULL;
+        END IF;
+    END IF;
+    -- Once per transaction, however many statements or batch chunks it runs
+    IF current_setting('users.version_bumped', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    PERFORM set_config('users.version_bumped', 'on', true);
+    UPDATE users_version_slots SET version = version + 1 WHERE slot = pg_backend_pid() % 16;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS users_version_insert ON users;
+CREATE TRIGGER users_version_insert
+    AFTER INSERT ON users REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_users_version();
+
+DROP TRIGGER IF EXISTS users_version_update ON users;
+CREATE TRIGGER users_version_update
+    AFTER UPDATE ON users REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_users_version();
+
+DROP TRIGGER IF EXISTS users_version_delete ON users;
+CREATE TRIGGER users_version_delete
+    AFTER DELETE ON users REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_users_version();
+
+DROP TRIGGER IF EXISTS users_version_truncate ON users;
+CREATE TRIGGER users_version_truncate
+    AFTER TRUNCATE ON users
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_users_version();
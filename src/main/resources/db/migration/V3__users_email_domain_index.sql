@@ -0,0 +1,2 @@
+-- Serves GET /users?email_domain= in created_at order, the trailing id keeps keyset pages inside the index
+CREATE INDEX IF NOT EXISTS idx_users_email_domain ON users((lower(split_part(email, '@', 2))), created_at, id);
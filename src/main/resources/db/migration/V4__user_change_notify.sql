@@ -0,0 +1,26 @@
+-- Change stream: every committed row change is published on the user_changes channel,
+-- GET /users/changes relays it to Server-Sent Events subscribers (payloads stay far below the 8000 byte limit)
+CREATE OR REPLACE FUNCTION notify_user_change() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'TRUNCATE' THEN
+        PERFORM pg_notify('user_changes', json_build_object('op', TG_OP)::text);
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM pg_notify('user_changes', json_build_object('op', TG_OP, 'id', OLD.id)::text);
+    ELSE
+        PERFORM pg_notify('user_changes', json_build_object('op', TG_OP, 'id', NEW.id,
+            'username', NEW.username, 'email', NEW.email, 'fullName', NEW.full_name,
+            'createdAt', NEW.created_at, 'updatedAt', NEW.updated_at)::text);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS users_change_notify ON users;
+CREATE TRIGGER users_change_notify
+    AFTER INSERT OR UPDATE OR DELETE ON users
+    FOR EACH ROW EXECUTE FUNCTION notify_user_change();
+
+DROP TRIGGER IF EXISTS users_truncate_notify ON users;
+CREATE TRIGGER users_truncate_notify
+    AFTER TRUNCATE ON users
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_user_change();
@@ -0,0 +1,4 @@
+-- Sample data for development, only applied with APP_PROFILE=dev
+INSERT INTO users (username, email, full_name, created_at, updated_at) VALUES ('rafael', 'rafael@example.com', 'Rafael García', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+                                                                              ('sofia', 'sofia@example.com', 'Sofía Martínez', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+                                                                              ('ramon', 'ramon@example.com', 'Ramón Collector', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) ON CONFLICT (username) DO NOTHING;
@@ -0,0 +1,34 @@
+package org.technoready.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.jdbi.v3.core.Jdbi;
+
+/**
+ * Migrated PostgreSQL database for tests gated on TEST_DB_URL, shared by every test class of the run
+ * The tests empty the users table, never point it at data you want to keep
+ */
+public final class TestDatabase {
+
+    private static Jdbi jdbi;
+
+    private TestDatabase() {
+    }
+
+    public static synchronized Jdbi jdbi() {
+        if (jdbi == null) {
+            HikariConfig config = new HikariConfig();
+            config.setJdbcUrl(System.getenv("TEST_DB_URL"));
+            config.setUsername(System.getenv().getOrDefault("TEST_DB_USER", "postgres"));
+            config.setPassword(System.getenv().getOrDefault("TEST_DB_PASSWORD", ""));
+            config.setMaximumPoolSize(4);
+            jdbi = DatabaseConfig.initialize(new HikariDataSource(config));
+            new SchemaMigrator(jdbi, false, 10_000).migrate();
+        }
+        return jdbi;
+    }
+
+    public static void truncateUsers() {
+        jdbi().useHandle(handle -> handle.execute("TRUNCATE users"));
+    }
+}
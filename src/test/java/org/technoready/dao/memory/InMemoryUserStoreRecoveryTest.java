@@ -0,0 +1,99 @@
+package org.technoready.dao.memory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.technoready.entity.User;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.technoready.dao.memory.UserLogTest.user;
+
+/**
+ * A store reopened from its directory sees exactly the writes made before, with or without a clean close
+ */
+class InMemoryUserStoreRecoveryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversFromLogWithoutSnapshot() {
+        InMemoryUserStore store = InMemoryUserStore.open(directory, 0, 0);
+        User alice = store.insertIfAbsent(user(0, "alice")).orElseThrow();
+        User bob = store.insertIfAbsent(user(0, "bob")).orElseThrow();
+        store.updatePartial(alice.getId(), "new@example.com", null, null);
+        store.delete(bob.getId());
+        // No close: the process died, only the synced log is left
+
+        InMemoryUserStore reopened = InMemoryUserStore.open(directory, 0, 0);
+
+        assertEquals(1, reopened.count());
+        assertEquals("new@example.com", reopened.findById(alice.getId()).orElseThrow().getEmail());
+        assertTrue(reopened.findById(bob.getId()).isEmpty());
+        // Ids are never handed out twice, even the deleted last one
+        assertEquals(bob.getId() + 1, reopened.insertIfAbsent(user(0, "carla")).orElseThrow().getId());
+    }
+
+    @Test
+    void recoversSnapshotPlusLaterWrites() {
+        InMemoryUserStore store = InMemoryUserStore.open(directory, 0, 0);
+        User alice = store.insertIfAbsent(user(0, "alice")).orElseThrow();
+        User bob = store.insertIfAbsent(user(0, "bob")).orElseThrow();
+        store.snapshot();
+        User carla = store.insertIfAbsent(user(0, "carla")).orElseThrow();
+        store.delete(alice.getId());
+        store.updatePartial(bob.getId(), null, "Bob Renamed", null);
+
+        InMemoryUserStore reopened = InMemoryUserStore.open(directory, 0, 0);
+
+        assertEquals(List.of(bob.getId(), carla.getId()), ids(reopened));
+        assertEquals("Bob Renamed", reopened.findById(bob.getId()).orElseThrow().getFullName());
+        assertTrue(reopened.findByUsername("alice").isEmpty());
+    }
+
+    @Test
+    void fuzzySnapshotReplaysRecordsItAlreadyContains() {
+        // A snapshot taken while writers run holds some writes of the generation after it; replaying them must be harmless
+        try (UserLog log = UserLog.open(directory, 1, true)) {
+            log.appendPut(user(1, "alice"));
+            log.appendPut(user(2, "bob"));
+            long generation = log.rotate();
+            log.appendPut(user(3, "carla"));
+            log.appendDelete(2);
+            UserSnapshot.write(directory, generation, 3, List.of(user(1, "alice"), user(3, "carla")));
+            UserLog.deleteBefore(directory, generation);
+            log.appendPut(user(4, "dora"));
+        }
+
+        InMemoryUserStore reopened = InMemoryUserStore.open(directory, 0, 0);
+
+        assertEquals(List.of(1L, 3L, 4L), ids(reopened));
+        assertEquals(5, reopened.insertIfAbsent(user(0, "erik")).orElseThrow().getId());
+    }
+
+    @Test
+    void cleanCloseSnapshotsAndReopensWithoutLogReplay() {
+        InMemoryUserStore store = InMemoryUserStore.open(directory, 50, 0);
+        for (int i = 0; i < 100; i++) {
+            store.insertIfAbsent(user(0, "user" + i));
+        }
+        store.close();
+
+        UserSnapshot.Contents snapshot = UserSnapshot.read(directory);
+        assertEquals(100, snapshot.getUsers().size());
+
+        InMemoryUserStore reopened = InMemoryUserStore.open(directory, 0, 0);
+        assertEquals(100, reopened.count());
+        assertEquals(101, reopened.insertIfAbsent(user(0, "late")).orElseThrow().getId());
+    }
+
+    private static List<Long> ids(InMemoryUserStore store) {
+        List<Long> ids = new ArrayList<>();
+        store.forEachOrderedById(user -> ids.add(user.getId()));
+        return ids;
+    }
+}
@@ -0,0 +1,137 @@
+package org.technoready.dao.memory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.technoready.entity.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recovery of the user log: replay order, generations and torn tails
+ */
+class UserLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysPutsAndDeletesInOrder() {
+        try (UserLog log = UserLog.open(directory, 1, true)) {
+            log.appendPut(user(1, "alice"));
+            log.appendPut(user(2, "bob"));
+            log.appendPut(user(1, "alice2"));
+            log.appendDelete(2);
+        }
+
+        Map<Long, User> users = new LinkedHashMap<>();
+        long generation = UserLog.replay(directory, 0, user -> users.put(user.getId(), user), users::remove);
+
+        assertEquals(1, generation);
+        assertEquals(List.of(1L), new ArrayList<>(users.keySet()));
+        assertEquals(user(1, "alice2"), users.get(1L));
+    }
+
+    @Test
+    void replaySkipsGenerationsBeforeTheSnapshot() {
+        try (UserLog log = UserLog.open(directory, 1, true)) {
+            log.appendPut(user(1, "alice"));
+            assertEquals(2, log.rotate());
+            log.appendPut(user(2, "bob"));
+        }
+
+        List<Long> replayed = new ArrayList<>();
+        long generation = UserLog.replay(directory, 2, user -> replayed.add(user.getId()), id -> { });
+
+        assertEquals(2, generation);
+        assertEquals(List.of(2L), replayed);
+
+        UserLog.deleteBefore(directory, 2);
+        assertEquals(1, logFiles().size());
+    }
+
+    @Test
+    void tornTailIsTruncatedAndLaterAppendsSurvive() throws IOException {
+        try (UserLog log = UserLog.open(directory, 1, true)) {
+            log.appendPut(user(1, "alice"));
+            log.appendPut(user(2, "bob"));
+        }
+        Path file = logFiles().get(0);
+        long intact = Files.size(file);
+        // A crash halfway through the next record: length and checksum written, payload cut short
+        byte[] torn = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOfRange(torn, 0, 20), StandardOpenOption.APPEND);
+
+        List<Long> replayed = new ArrayList<>();
+        UserLog.replay(directory, 0, user -> replayed.add(user.getId()), id -> { });
+
+        assertEquals(List.of(1L, 2L), replayed);
+        assertEquals(intact, Files.size(file));
+
+        try (UserLog log = UserLog.open(directory, 1, true)) {
+            log.appendPut(user(3, "carla"));
+        }
+        replayed.clear();
+        UserLog.replay(directory, 0, user -> replayed.add(user.getId()), id -> { });
+        assertEquals(List.of(1L, 2L, 3L), replayed);
+    }
+
+    @Test
+    void recordWithBadChecksumEndsTheReplay() throws IOException {
+        try (UserLog log = UserLog.open(directory, 1, true)) {
+            log.appendPut(user(1, "alice"));
+        }
+        Path file = logFiles().get(0);
+        long first = Files.size(file);
+        try (UserLog log = UserLog.open(directory, 1, true)) {
+            log.appendPut(user(2, "bob"));
+            log.appendPut(user(3, "carla"));
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[(int) first + 12] ^= 0x5a;
+        Files.write(file, bytes);
+
+        List<Long> replayed = new ArrayList<>();
+        UserLog.replay(directory, 0, user -> replayed.add(user.getId()), id -> { });
+
+        assertEquals(List.of(1L), replayed);
+        assertEquals(first, Files.size(file));
+    }
+
+    @Test
+    void emptyDirectoryReplaysNothing() {
+        List<Long> replayed = new ArrayList<>();
+        long generation = UserLog.replay(directory, 0, user -> replayed.add(user.getId()), id -> { });
+
+        assertTrue(replayed.isEmpty());
+        assertEquals(0, generation);
+    }
+
+    static User user(long id, String username) {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0).plusSeconds(id);
+        return new User(id, username, username + "@example.com", "User " + username, createdAt,
+                createdAt.plusNanos(1000));
+    }
+
+    private List<Path> logFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> logs = new ArrayList<>();
+            files.filter(file -> file.getFileName().toString().endsWith(".log")).sorted().forEach(logs::add);
+            return logs;
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
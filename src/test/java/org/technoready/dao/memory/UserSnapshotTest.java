@@ -0,0 +1,60 @@
+package org.technoready.dao.memory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.technoready.entity.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.technoready.dao.memory.UserLogTest.user;
+
+/**
+ * Snapshot files round trip and refuse to load when damaged
+ */
+class UserSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void missingSnapshotIsEmpty() {
+        UserSnapshot.Contents contents = UserSnapshot.read(directory);
+
+        assertEquals(0, contents.getGeneration());
+        assertEquals(0, contents.getSequence());
+        assertTrue(contents.getUsers().isEmpty());
+    }
+
+    @Test
+    void roundTripsUsersAndPosition() {
+        List<User> users = List.of(user(1, "alice"), user(7, "bob"),
+                new User(9L, "carla", "carla@example.com", null, user(9, "carla").getCreatedAt(),
+                        user(9, "carla").getUpdatedAt()));
+
+        UserSnapshot.write(directory, 3, 12, users);
+        UserSnapshot.Contents contents = UserSnapshot.read(directory);
+
+        assertEquals(3, contents.getGeneration());
+        assertEquals(12, contents.getSequence());
+        assertEquals(users, contents.getUsers());
+        assertFalse(Files.exists(directory.resolve("users.snapshot.tmp")));
+    }
+
+    @Test
+    void corruptSnapshotIsRejected() throws IOException {
+        UserSnapshot.write(directory, 3, 12, List.of(user(1, "alice"), user(2, "bob")));
+        Path file = directory.resolve("users.snapshot");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 3] ^= 0x01;
+        Files.write(file, bytes);
+
+        assertThrows(IllegalStateException.class, () -> UserSnapshot.read(directory));
+    }
+}
@@ -0,0 +1,17 @@
+package org.technoready.service;
+
+import org.technoready.dao.memory.InMemoryUserStore;
+import org.technoready.service.impl.InMemoryUserService;
+import org.technoready.service.impl.UserSearchIndex;
+
+/**
+ * Runs the UserService contract against the in-memory store
+ */
+class InMemoryUserServiceTest extends UserServiceContractTest {
+
+    @Override
+    protected UserService createService() {
+        return new InMemoryUserService(InMemoryUserStore.transientStore(), 1000, UserSearchIndex.empty(),
+                change -> { });
+    }
+}
@@ -0,0 +1,262 @@
+package org.technoready.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.technoready.dto.Page;
+import org.technoready.dto.UserQuery;
+import org.technoready.dto.UserSort;
+import org.technoready.dto.request.CreateUserRequest;
+import org.technoready.dto.request.UpdateUserRequest;
+import org.technoready.dto.response.BatchItemResult;
+import org.technoready.dto.response.UserSuggestion;
+import org.technoready.entity.User;
+import org.technoready.exception.PreconditionFailedException;
+import org.technoready.exception.UserNotFoundException;
+import org.technoready.exception.ValidationException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Behaviour every UserService backend must share, run once per implementation by the subclasses
+ * Each test starts from an empty users table
+ */
+public abstract class UserServiceContractTest {
+
+    protected UserService service;
+
+    /**
+     * A service over an empty store, with search enabled
+     */
+    protected abstract UserService createService() throws Exception;
+
+    @BeforeEach
+    void setUpService() throws Exception {
+        service = createService();
+    }
+
+    @Test
+    void createdUserCanBeReadBack() {
+        User created = service.createUser(request("johndoe", "john@example.com", "John Doe"));
+
+        assertNotNull(created.getId());
+        assertNotNull(created.getCreatedAt());
+        User read = service.getUserById(created.getId()).orElseThrow();
+        assertEquals("johndoe", read.getUsername());
+        assertEquals("john@example.com", read.getEmail());
+        assertEquals("John Doe", read.getFullName());
+        assertEquals(created.getCreatedAt(), read.getCreatedAt());
+        assertEquals(created.getUpdatedAt(), read.getUpdatedAt());
+        assertTrue(service.userExists(created.getId()));
+    }
+
+    @Test
+    void duplicateUsernameIsRejected() {
+        service.createUser(request("johndoe", "john@example.com", "John Doe"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.createUser(request("johndoe", "other@example.com", "Other")));
+        assertEquals(1, service.getAllUsers().size());
+    }
+
+    @Test
+    void invalidRequestIsRejectedWithEveryFieldError() {
+        ValidationException error = assertThrows(ValidationException.class,
+                () -> service.createUser(request("x", "bad", "")));
+
+        assertEquals(3, error.getErrors().size());
+        assertTrue(service.getAllUsers().isEmpty());
+    }
+
+    @Test
+    void batchReportsEachItem() {
+        service.createUser(request("taken", "taken@example.com", "Taken"));
+
+        List<BatchItemResult> results = service.createUsers(Arrays.asList(
+                request("alice", "alice@example.com", "Alice"),
+                request("taken", "x@example.com", "Conflict"),
+                request("alice", "alice2@example.com", "Duplicate"),
+                request("b", "bad", "Invalid"),
+                null,
+                request("bob", "bob@example.com", "Bob")));
+
+        assertEquals(6, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+        }
+        assertEquals(BatchItemResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(BatchItemResult.Status.CONFLICT, results.get(1).getStatus());
+        assertEquals(BatchItemResult.Status.CONFLICT, results.get(2).getStatus());
+        assertEquals(BatchItemResult.Status.INVALID, results.get(3).getStatus());
+        assertEquals(BatchItemResult.Status.INVALID, results.get(4).getStatus());
+        assertEquals(BatchItemResult.Status.CREATED, results.get(5).getStatus());
+        assertEquals("Alice", service.getUserById(results.get(0).getId()).orElseThrow().getFullName());
+        assertEquals(3, service.getAllUsers().size());
+    }
+
+    @Test
+    void updateChangesOnlyGivenFields() {
+        User created = service.createUser(request("johndoe", "john@example.com", "John Doe"));
+
+        User updated = service.updateUser(created.getId(), update("new@example.com", null));
+
+        assertEquals("new@example.com", updated.getEmail());
+        assertEquals("John Doe", updated.getFullName());
+        assertEquals(created.getCreatedAt(), updated.getCreatedAt());
+        assertTrue(updated.getUpdatedAt().isAfter(created.getUpdatedAt()));
+        assertEquals(updated.getEmail(), service.getUserById(created.getId()).orElseThrow().getEmail());
+    }
+
+    @Test
+    void updateOfMissingUserFails() {
+        assertThrows(UserNotFoundException.class,
+                () -> service.updateUser(404L, update("new@example.com", null)));
+    }
+
+    @Test
+    void conditionalUpdateOnlyAppliesToExpectedVersion() {
+        User created = service.createUser(request("johndoe", "john@example.com", "John Doe"));
+        List<LocalDateTime> original = List.of(created.getUpdatedAt());
+
+        User updated = service.updateUserIfUnmodified(created.getId(), update(null, "First"), original);
+
+        assertEquals("First", updated.getFullName());
+        assertThrows(PreconditionFailedException.class,
+                () -> service.updateUserIfUnmodified(created.getId(), update(null, "Second"), original));
+        assertEquals("First", service.getUserById(created.getId()).orElseThrow().getFullName());
+        assertThrows(UserNotFoundException.class,
+                () -> service.updateUserIfUnmodified(404L, update(null, "Third"), original));
+    }
+
+    @Test
+    void deleteRemovesTheUserOnce() {
+        User created = service.createUser(request("johndoe", "john@example.com", "John Doe"));
+
+        assertTrue(service.deleteUser(created.getId()));
+        assertFalse(service.deleteUser(created.getId()));
+        assertFalse(service.userExists(created.getId()));
+        assertTrue(service.getUserById(created.getId()).isEmpty());
+        // The username is free again
+        service.createUser(request("johndoe", "john@example.com", "John Doe"));
+    }
+
+    @Test
+    void pagesWalkEveryUserOnceInCreationOrder() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            ids.add(service.createUser(request("user" + i, "user" + i + "@example.com", "User " + i)).getId());
+        }
+
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Page<User> page = service.getUsersPage(cursor, 3);
+            page.getItems().forEach(user -> walked.add(user.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null && pages < 10);
+
+        assertEquals(ids, walked);
+    }
+
+    @Test
+    void versionChangesOnWritesOnly() {
+        long initial = service.getUsersVersion();
+        User created = service.createUser(request("johndoe", "john@example.com", "John Doe"));
+        long afterCreate = service.getUsersVersion();
+        assertNotEquals(initial, afterCreate);
+
+        service.getUserById(created.getId());
+        service.getUsersPage(null, 10);
+        assertEquals(afterCreate, service.getUsersVersion());
+
+        service.updateUser(created.getId(), update(null, "Renamed"));
+        long afterUpdate = service.getUsersVersion();
+        assertNotEquals(afterCreate, afterUpdate);
+
+        service.deleteUser(created.getId());
+        assertNotEquals(afterUpdate, service.getUsersVersion());
+    }
+
+    @Test
+    void queriesFilterAndSort() {
+        service.createUser(request("anna", "anna@example.com", "Anna"));
+        service.createUser(request("boris", "boris@other.org", "Boris"));
+        service.createUser(request("carla", "carla@Example.com", "Carla"));
+
+        Page<User> byDomain = service.findUsers(UserQuery.builder()
+                .emailDomain("example.com")
+                .sort(UserSort.CREATED_AT_DESC)
+                .limit(10)
+                .build());
+        assertEquals(List.of("carla", "anna"), usernames(byDomain.getItems()));
+        assertNull(byDomain.getNextCursor());
+
+        Page<User> byUsername = service.findUsers(UserQuery.builder().username("boris").limit(10).build());
+        assertEquals(List.of("boris"), usernames(byUsername.getItems()));
+
+        Page<User> firstById = service.findUsers(UserQuery.builder().sort(UserSort.ID_DESC).limit(2).build());
+        assertEquals(List.of("carla", "boris"), usernames(firstById.getItems()));
+        Page<User> secondById = service.findUsers(UserQuery.builder()
+                .sort(UserSort.ID_DESC).cursor(firstById.getNextCursor()).limit(2).build());
+        assertEquals(List.of("anna"), usernames(secondById.getItems()));
+    }
+
+    @Test
+    void searchFindsPrefixesAndForgetsDeletedUsers() {
+        User anna = service.createUser(request("annabel", "anna@example.com", "Anna Smith"));
+        service.createUser(request("boris", "boris@example.com", "Boris Annenkov"));
+
+        Set<String> found = new HashSet<>();
+        for (UserSuggestion suggestion : service.searchUsers("ann", 10)) {
+            found.add(suggestion.getUsername());
+        }
+        assertEquals(Set.of("annabel", "boris"), found);
+
+        service.deleteUser(anna.getId());
+        List<UserSuggestion> afterDelete = service.searchUsers("annab", 10);
+        assertTrue(afterDelete.isEmpty());
+    }
+
+    @Test
+    void forEachUserVisitsUsersInIdOrder() {
+        for (int i = 0; i < 5; i++) {
+            service.createUser(request("user" + i, "user" + i + "@example.com", "User " + i));
+        }
+
+        List<Long> ids = new ArrayList<>();
+        service.forEachUser(user -> ids.add(user.getId()));
+
+        List<Long> sorted = new ArrayList<>(ids);
+        sorted.sort(null);
+        assertEquals(5, ids.size());
+        assertEquals(sorted, ids);
+    }
+
+    protected static CreateUserRequest request(String username, String email, String fullName) {
+        return new CreateUserRequest(username, email, fullName);
+    }
+
+    private static UpdateUserRequest update(String email, String fullName) {
+        return new UpdateUserRequest(email, fullName);
+    }
+
+    private static List<String> usernames(List<User> users) {
+        List<String> usernames = new ArrayList<>();
+        users.forEach(user -> usernames.add(user.getUsername()));
+        return usernames;
+    }
+}
@@ -0,0 +1,26 @@
+package org.technoready.service;
+
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.technoready.config.TestDatabase;
+import org.technoready.service.impl.ReplicaRouter;
+import org.technoready.service.impl.UserMembershipFilter;
+import org.technoready.service.impl.UserSearchIndex;
+import org.technoready.service.impl.UserServiceImpl;
+
+/**
+ * Runs the UserService contract against PostgreSQL
+ * Only when TEST_DB_URL points at a database the tests may empty, e.g.
+ * TEST_DB_URL=jdbc:postgresql://localhost:5432/users_test TEST_DB_USER=postgres mvn test
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DB_URL", matches = ".+")
+class UserServiceImplTest extends UserServiceContractTest {
+
+    @Override
+    protected UserService createService() {
+        TestDatabase.truncateUsers();
+        Jdbi jdbi = TestDatabase.jdbi();
+        return new UserServiceImpl(jdbi, UserMembershipFilter.build(jdbi, 0.01), 500, 5000, null,
+                ReplicaRouter.primaryOnly(jdbi), UserSearchIndex.build(jdbi));
+    }
+}
@@ -0,0 +1,89 @@
+package org.technoready.service.impl;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.technoready.config.TestDatabase;
+import org.technoready.dao.UserDao;
+import org.technoready.dto.request.CreateUserRequest;
+import org.technoready.entity.User;
+import org.technoready.util.UserMapper;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Callers of a group commit get the row as stored, and a timeout never hides a committed row
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DB_URL", matches = ".+")
+class GroupCommitUserWriterTest {
+
+    private static final long TIMEOUT_MILLIS = 200;
+
+    private Jdbi jdbi;
+    private GroupCommitUserWriter writer;
+
+    @BeforeEach
+    void emptyTable() {
+        TestDatabase.truncateUsers();
+        jdbi = TestDatabase.jdbi();
+        writer = new GroupCommitUserWriter(jdbi, 0, 10, 10, TIMEOUT_MILLIS);
+    }
+
+    @Test
+    void returnsTheStoredRow() {
+        User created = writer.insert(user("alice"));
+
+        assertEquals(stored(created.getId()), created);
+    }
+
+    @Test
+    void timeoutAfterTheFlusherTookTheRowWaitsForTheCommit() throws Exception {
+        CompletableFuture<User> insert;
+        try (Handle blocker = jdbi.open()) {
+            // Holds the username, so the batch insert waits on it inside its transaction
+            blocker.begin();
+            blocker.attach(UserDao.class).insertIfAbsent(user("alice"));
+            insert = CompletableFuture.supplyAsync(() -> writer.insert(user("alice")));
+            TimeUnit.MILLISECONDS.sleep(TIMEOUT_MILLIS * 3);
+            blocker.rollback();
+        }
+
+        User created = insert.get(10, TimeUnit.SECONDS);
+        assertEquals(stored(created.getId()), created);
+    }
+
+    @Test
+    void timeoutBeforeTheFlusherTookTheRowWithdrawsIt() throws Exception {
+        CompletableFuture<User> first;
+        try (Handle blocker = jdbi.open()) {
+            blocker.begin();
+            blocker.attach(UserDao.class).insertIfAbsent(user("alice"));
+            first = CompletableFuture.supplyAsync(() -> writer.insert(user("alice")));
+            TimeUnit.MILLISECONDS.sleep(TIMEOUT_MILLIS / 2);
+            // The flusher is stuck on the first batch, this one times out still queued
+            assertThrows(IllegalStateException.class, () -> writer.insert(user("bob")));
+            blocker.rollback();
+        }
+
+        first.get(10, TimeUnit.SECONDS);
+        TimeUnit.MILLISECONDS.sleep(TIMEOUT_MILLIS);
+        long bobs = jdbi.withHandle(handle -> handle.createQuery("SELECT count(*) FROM users WHERE username = 'bob'")
+                .mapTo(Long.class)
+                .one());
+        assertEquals(0, bobs);
+    }
+
+    private User stored(long id) {
+        return jdbi.withExtension(UserDao.class, dao -> dao.findById(id)).orElseThrow();
+    }
+
+    private static User user(String username) {
+        return UserMapper.toEntity(new CreateUserRequest(username, username + "@example.com", "User " + username));
+    }
+}
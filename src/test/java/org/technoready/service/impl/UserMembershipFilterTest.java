@@ -0,0 +1,93 @@
+package org.technoready.service.impl;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.technoready.config.TestDatabase;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The filter never reports a committed id as absent, whatever was in flight while it was built
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DB_URL", matches = ".+")
+class UserMembershipFilterTest {
+
+    private Jdbi jdbi;
+
+    @BeforeEach
+    void emptyTable() {
+        TestDatabase.truncateUsers();
+        jdbi = TestDatabase.jdbi();
+    }
+
+    @Test
+    void lowerIdCommittedAfterHigherOneIsFound() throws Exception {
+        long deleted = insertAndDelete();
+        long inFlight;
+        long committed;
+        CompletableFuture<UserMembershipFilter> build;
+        try (Handle slow = jdbi.open()) {
+            slow.begin();
+            inFlight = insert(slow, "slow");
+            committed = jdbi.withHandle(handle -> insert(handle, "fast"));
+            assertTrue(committed > inFlight);
+
+            build = CompletableFuture.supplyAsync(() -> UserMembershipFilter.build(jdbi, 0.01));
+            TimeUnit.MILLISECONDS.sleep(300);
+            slow.commit();
+        }
+        UserMembershipFilter filter = build.get(10, TimeUnit.SECONDS);
+
+        assertTrue(filter.mightContainId(inFlight));
+        assertTrue(filter.mightContainId(committed));
+        assertFalse(filter.mightContainId(deleted));
+    }
+
+    @Test
+    void longOpenWriterTurnsNegativesOffWithoutBlockingOthers() throws Exception {
+        long deleted = insertAndDelete();
+        long id = jdbi.withHandle(handle -> insert(handle, "first"));
+        try (Handle open = jdbi.open()) {
+            open.begin();
+            insert(open, "held");
+            CompletableFuture<UserMembershipFilter> build =
+                    CompletableFuture.supplyAsync(() -> UserMembershipFilter.build(jdbi, 0.01));
+            TimeUnit.MILLISECONDS.sleep(300);
+
+            // The build is waiting on the open transaction, writers go on meanwhile
+            long during = CompletableFuture.supplyAsync(() -> jdbi.withHandle(handle -> insert(handle, "during")))
+                    .get(1, TimeUnit.SECONDS);
+            assertFalse(build.isDone());
+
+            UserMembershipFilter filter = build.get(10, TimeUnit.SECONDS);
+            open.rollback();
+
+            assertTrue(filter.mightContainId(id));
+            assertTrue(filter.mightContainId(during));
+            assertTrue(filter.mightContainId(deleted));
+        }
+    }
+
+    private long insertAndDelete() {
+        return jdbi.withHandle(handle -> {
+            long id = insert(handle, "deleted");
+            handle.execute("DELETE FROM users WHERE id = ?", id);
+            return id;
+        });
+    }
+
+    private static long insert(Handle handle, String username) {
+        return handle.createQuery("INSERT INTO users (username, email, full_name, created_at, updated_at) "
+                        + "VALUES (:username, :username || '@example.com', 'Test', now(), now()) RETURNING id")
+                .bind("username", username)
+                .mapTo(Long.class)
+                .one();
+    }
+}
@@ -0,0 +1,71 @@
+package org.technoready.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.technoready.dto.response.UserSuggestion;
+import org.technoready.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes reaching the index out of order leave it matching the last committed state
+ */
+class UserSearchIndexTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final UserSearchIndex index = UserSearchIndex.empty();
+
+    @Test
+    void findsUsernamesAndNameWords() {
+        index.put(user(1, "mary", "Mary Ann Smith", 0));
+        index.put(user(2, "annie", "Annie Hall", 0));
+
+        assertEquals(List.of("annie", "mary"), usernames("ann"));
+        assertEquals(List.of("mary"), usernames("smi"));
+    }
+
+    @Test
+    void olderUpdateArrivingLateIsDropped() {
+        index.put(user(1, "mary", "Mary Smith", 2));
+        index.put(user(1, "mary", "Mary Jones", 1));
+
+        assertEquals(List.of("mary"), usernames("smith"));
+        assertTrue(usernames("jones").isEmpty());
+    }
+
+    @Test
+    void updateArrivingAfterTheDeleteIsDropped() {
+        index.put(user(1, "mary", "Mary Smith", 0));
+        index.remove(1);
+        index.put(user(1, "mary", "Mary Jones", 1));
+
+        assertTrue(usernames("mary").isEmpty());
+        assertEquals(0, index.getTermCount());
+    }
+
+    @Test
+    void createArrivingAfterTheDeleteIsDropped() {
+        index.remove(1);
+        index.put(user(1, "mary", "Mary Smith", 0));
+
+        assertTrue(usernames("mary").isEmpty());
+    }
+
+    private List<String> usernames(String query) {
+        List<String> usernames = new ArrayList<>();
+        for (UserSuggestion suggestion : index.search(query, 10)) {
+            usernames.add(suggestion.getUsername());
+        }
+        return usernames;
+    }
+
+    private static User user(long id, String username, String fullName, int version) {
+        return new User(id, username, username + "@example.com", fullName, CREATED,
+                CREATED.plusSeconds(version));
+    }
+}
@@ -0,0 +1,239 @@
+package org.technoready.util;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.technoready.config.GsonConfig;
+import org.technoready.dto.request.CreateUserRequest;
+import org.technoready.dto.request.UpdateUserRequest;
+import org.technoready.dto.response.ApiResponse;
+import org.technoready.dto.response.BatchItemResult;
+import org.technoready.dto.response.UserResponse;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The hand-written adapters registered by GsonConfig must produce byte-for-byte the output of Gson's
+ * reflective adapters with the former DateTimeFormatter-based LocalDateTime adapter, and read the same values
+ */
+class GsonAdapterParityTest {
+
+    private static final int ROUNDS = 2000;
+    private static final String[] TEXT = {
+            "", "johndoe", "Rafael García", "quote\"back\\slash", "<tag>&'amp'", "line\nbreak\ttab",
+            "  ", "emoji 😀", "control \u0001\u001f", "=", "x".repeat(100)
+    };
+
+    @AfterEach
+    void restoreDefaults() {
+        GsonConfig.configure(true);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void userResponsesMatchReflectiveOutput(boolean serializeNulls) {
+        Gson adapters = adapters(serializeNulls);
+        Gson reflective = reflective(serializeNulls);
+        Random random = new Random(11);
+
+        for (int i = 0; i < ROUNDS; i++) {
+            UserResponse user = user(random);
+            assertEquals(reflective.toJson(user), adapters.toJson(user));
+            String json = reflective.toJson(user);
+            assertEquals(reflective.fromJson(json, UserResponse.class), adapters.fromJson(json, UserResponse.class));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void envelopesMatchReflectiveOutput(boolean serializeNulls) {
+        Gson adapters = adapters(serializeNulls);
+        Gson reflective = reflective(serializeNulls);
+        Random random = new Random(17);
+
+        for (int i = 0; i < ROUNDS; i++) {
+            ApiResponse<Object> response = new ApiResponse<>(random.nextBoolean(), text(random), data(random),
+                    text(random));
+            assertEquals(reflective.toJson(response), adapters.toJson(response));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void prettyOutputMatchesReflectiveOutput(boolean serializeNulls) {
+        GsonConfig.configure(serializeNulls);
+        Gson adapters = GsonConfig.getPrettyGson();
+        Gson reflective = reflective(serializeNulls).newBuilder().setPrettyPrinting().create();
+        Random random = new Random(23);
+
+        for (int i = 0; i < ROUNDS / 10; i++) {
+            ApiResponse<Object> response = ApiResponse.page(data(random), text(random));
+            assertEquals(reflective.toJson(response), adapters.toJson(response));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void requestsMatchReflectiveOutputBothWays(boolean serializeNulls) {
+        Gson adapters = adapters(serializeNulls);
+        Gson reflective = reflective(serializeNulls);
+        Random random = new Random(29);
+
+        for (int i = 0; i < ROUNDS; i++) {
+            CreateUserRequest create = new CreateUserRequest(text(random), text(random), text(random));
+            String createJson = reflective.toJson(create);
+            assertEquals(createJson, adapters.toJson(create));
+            assertEquals(reflective.fromJson(createJson, CreateUserRequest.class),
+                    adapters.fromJson(createJson, CreateUserRequest.class));
+
+            UpdateUserRequest update = new UpdateUserRequest(text(random), text(random));
+            String updateJson = reflective.toJson(update);
+            assertEquals(updateJson, adapters.toJson(update));
+            assertEquals(reflective.fromJson(updateJson, UpdateUserRequest.class),
+                    adapters.fromJson(updateJson, UpdateUserRequest.class));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"username\":\"a\",\"unknown\":{\"x\":[1,2]},\"email\":null,\"fullName\":\"b\"}",
+            "{}",
+            "{\"fullName\":\"only\"}"
+    })
+    void requestsReadUnknownAndNullFieldsLikeReflection(String json) {
+        Gson adapters = adapters(true);
+        Gson reflective = reflective(true);
+        assertEquals(reflective.fromJson(json, CreateUserRequest.class), adapters.fromJson(json, CreateUserRequest.class));
+        assertEquals(reflective.fromJson(json, UpdateUserRequest.class), adapters.fromJson(json, UpdateUserRequest.class));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void typedEnvelopesReadLikeReflection(boolean serializeNulls) {
+        Gson adapters = adapters(serializeNulls);
+        Gson reflective = reflective(serializeNulls);
+        Type type = new TypeToken<ApiResponse<UserResponse>>() { }.getType();
+        Random random = new Random(31);
+
+        for (int i = 0; i < ROUNDS; i++) {
+            ApiResponse<UserResponse> response = new ApiResponse<>(random.nextBoolean(), text(random),
+                    random.nextInt(4) == 0 ? null : user(random), text(random));
+            String json = reflective.toJson(response, type);
+            assertEquals(json, adapters.toJson(response, type));
+            ApiResponse<UserResponse> expected = reflective.fromJson(json, type);
+            ApiResponse<UserResponse> actual = adapters.fromJson(json, type);
+            assertEquals(expected, actual);
+        }
+    }
+
+    private static Gson adapters(boolean serializeNulls) {
+        GsonConfig.configure(serializeNulls);
+        return GsonConfig.createNewGson();
+    }
+
+    private static Gson reflective(boolean serializeNulls) {
+        GsonBuilder builder = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new FormatterLocalDateTimeAdapter().nullSafe());
+        if (serializeNulls) {
+            builder.serializeNulls();
+        }
+        return builder.create();
+    }
+
+    private static Object data(Random random) {
+        switch (random.nextInt(6)) {
+            case 0:
+                return null;
+            case 1:
+                return user(random);
+            case 2: {
+                List<UserResponse> users = new ArrayList<>();
+                int size = random.nextInt(5);
+                for (int i = 0; i < size; i++) {
+                    users.add(user(random));
+                }
+                return users;
+            }
+            case 3: {
+                List<BatchItemResult> results = new ArrayList<>();
+                results.add(BatchItemResult.created(0, text(random), random.nextLong()));
+                results.add(BatchItemResult.conflict(1, text(random), text(random)));
+                results.add(BatchItemResult.invalid(2, text(random), text(random)));
+                return results;
+            }
+            case 4: {
+                Map<String, Object> map = new LinkedHashMap<>();
+                map.put("startupMillis", random.nextLong());
+                map.put("user", user(random));
+                map.put("name", text(random));
+                return map;
+            }
+            default:
+                return text(random);
+        }
+    }
+
+    private static UserResponse user(Random random) {
+        return new UserResponse(
+                random.nextInt(8) == 0 ? null : random.nextLong() >>> random.nextInt(64),
+                text(random), text(random), text(random), timestamp(random), timestamp(random));
+    }
+
+    private static String text(Random random) {
+        return random.nextInt(8) == 0 ? null : TEXT[random.nextInt(TEXT.length)];
+    }
+
+    private static LocalDateTime timestamp(Random random) {
+        if (random.nextInt(8) == 0) {
+            return null;
+        }
+        int year = random.nextInt(20) == 0 ? random.nextInt(30000) - 10000 : 1970 + random.nextInt(100);
+        LocalDateTime value = LocalDateTime.of(year, 1 + random.nextInt(12), 1 + random.nextInt(28),
+                random.nextInt(24), random.nextInt(60), random.nextInt(60));
+        switch (random.nextInt(4)) {
+            case 0:
+                return value;
+            case 1:
+                return value.withNano(random.nextInt(1000) * 1_000_000);
+            case 2:
+                return value.withNano(random.nextInt(1_000_000) * 1000);
+            default:
+                return value.withNano(random.nextInt(1_000_000_000));
+        }
+    }
+
+    /**
+     * The LocalDateTimeAdapter as it was before the hand-rolled printer (it could not read null, hence nullSafe)
+     */
+    private static final class FormatterLocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
+        @Override
+        public void write(JsonWriter out, LocalDateTime value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+            } else {
+                out.value(value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            }
+        }
+
+        @Override
+        public LocalDateTime read(JsonReader in) throws IOException {
+            return LocalDateTime.parse(in.nextString(), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        }
+    }
+}